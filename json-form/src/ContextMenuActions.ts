@@ -80,20 +80,13 @@ export interface MenuPropertyProps {
   readonly menuFilter?: MenuOptionFilter;
 }
 
-export function createTypesMenu(
-  path: JsPath,
+// the values offered by the "Change type" menu : one by type, the proposal
+// types only in strict mode, never the current type
+export function getChangeTypeValues(
   valueAtPath: JsonValue,
   proposals: ReadonlyArray<JsonValue>,
   strictMode: boolean,
-): ReadonlyArray<MenuItem<MenuAction>> {
-  const buildChangeTypeItem = (value: JsonValue): MenuItem<MenuAction> => {
-    return item<MenuAction>({
-      tag: 'change-type',
-      path,
-      value: value,
-    });
-  };
-
+): ReadonlyArray<JsonValue> {
   const uniqueProposalTypes = proposals
     .map((p) => p.tag)
     .filter(
@@ -101,49 +94,6 @@ export function createTypesMenu(
         array.indexOf(value) === index,
     );
 
-  const buildChangeTypeMenuItems = (): ReadonlyArray<MenuItem<MenuAction>> => {
-    const jsonValues = strictMode
-      ? proposals
-      : [
-          jvNull,
-          jvString(''),
-          jvNumber('0'),
-          jvBool(true),
-          jvObject(),
-          jvArray(),
-        ];
-
-    return (
-      jsonValues
-        // keep only JsonValue type
-        .map((p) => p.tag)
-        // Get unique values
-        .filter(
-          (value: string, index: number, array: ReadonlyArray<string>) =>
-            array.indexOf(value) === index,
-        )
-        // Exclude actual type
-        .filter((value) => value !== valueAtPath.tag)
-        // Build MenuItem from unique JsonValue
-        .map((t) => {
-          switch (t) {
-            case 'jv-array':
-              return buildChangeTypeItem(jvArray());
-            case 'jv-boolean':
-              return buildChangeTypeItem(jvBool(true));
-            case 'jv-null':
-              return buildChangeTypeItem(jvNull);
-            case 'jv-number':
-              return buildChangeTypeItem(jvNumber('0'));
-            case 'jv-object':
-              return buildChangeTypeItem(jvObject());
-            case 'jv-string':
-              return buildChangeTypeItem(jvString(''));
-          }
-        })
-    );
-  };
-
   if (
     strictMode &&
     uniqueProposalTypes.length === 1 &&
@@ -153,8 +103,65 @@ export function createTypesMenu(
     return [];
   }
 
-  return buildChangeTypeMenuItems().length > 0
-    ? [item({ tag: 'types' }, menu(buildChangeTypeMenuItems()))]
+  const jsonValues = strictMode
+    ? proposals
+    : [
+        jvNull,
+        jvString(''),
+        jvNumber('0'),
+        jvBool(true),
+        jvObject(),
+        jvArray(),
+      ];
+
+  return (
+    jsonValues
+      // keep only JsonValue type
+      .map((p) => p.tag)
+      // Get unique values
+      .filter(
+        (value: string, index: number, array: ReadonlyArray<string>) =>
+          array.indexOf(value) === index,
+      )
+      // Exclude actual type
+      .filter((value) => value !== valueAtPath.tag)
+      // Default value of each type
+      .map((t) => {
+        switch (t) {
+          case 'jv-array':
+            return jvArray();
+          case 'jv-boolean':
+            return jvBool(true);
+          case 'jv-null':
+            return jvNull;
+          case 'jv-number':
+            return jvNumber('0');
+          case 'jv-object':
+            return jvObject();
+          case 'jv-string':
+            return jvString('');
+        }
+      })
+  );
+}
+
+export function createTypesMenu(
+  path: JsPath,
+  valueAtPath: JsonValue,
+  proposals: ReadonlyArray<JsonValue>,
+  strictMode: boolean,
+): ReadonlyArray<MenuItem<MenuAction>> {
+  const buildChangeTypeItem = (value: JsonValue): MenuItem<MenuAction> => {
+    return item<MenuAction>({
+      tag: 'change-type',
+      path,
+      value: value,
+    });
+  };
+
+  const values = getChangeTypeValues(valueAtPath, proposals, strictMode);
+  return values.length > 0
+    ? [item({ tag: 'types' }, menu(values.map(buildChangeTypeItem)))]
     : [];
 }
 
@@ -89,7 +89,7 @@ export function contextMenuRenderer(
   });
 }
 
-function getItemLabel(proposal: JsonValue): string {
+export function getItemLabel(proposal: JsonValue): string {
   switch (proposal.tag) {
     case 'jv-number':
       return proposal.value.toString();
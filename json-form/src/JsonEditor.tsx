@@ -54,10 +54,13 @@ import {
   updateAddingPropertyName,
 } from './Model';
 import {
+  addPropertyNamed,
   contextMenuMsg,
   gotMenuProposals,
   gotUpdatedValue,
+  menuActionMsg,
   Msg,
+  resetMsg,
   setDebounceMsMsg,
   setJsonStr,
   setStrictModeMsg,
@@ -363,6 +366,42 @@ export function update(
           .withDefaultSupply(() => noCmd(model)),
       );
     }
+    case 'menu-action': {
+      return withOutValueChanged(
+        model,
+        updatePiped(
+          model,
+          (m) => closeMenu(m),
+          (m) => executeContextMenuAction(schemaService, m, msg.action),
+        ),
+      );
+    }
+    case 'add-property-named': {
+      // the menu's add property form, opened and confirmed with the name
+      return withOutValueChanged(
+        model,
+        updatePiped(
+          model,
+          (m) => closeMenu(m),
+          (m) =>
+            actionConfirmAddProperty(
+              schemaService,
+              updateAddingPropertyName(
+                {
+                  ...m,
+                  adding: just({
+                    ownerPath: msg.path,
+                    addingPropName: '',
+                    isDuplicate: false,
+                  }),
+                },
+                msg.propertyName,
+              ),
+              true,
+            ),
+        ),
+      );
+    }
     case 'set-json-str': {
       const newModel: Model = {
         ...model,
@@ -370,6 +409,25 @@ export function update(
       };
       return noOut(setRoot(schemaService, newModel, msg.json));
     }
+    case 'reset': {
+      // back to a fresh model, but keep the pending ids so that
+      // responses to requests sent before the reset are ignored
+      const newModel: Model = {
+        ...initialModel(
+          model.lang,
+          msg.schema,
+          msg.json,
+          model.strictMode,
+          model.debounceMs,
+        ),
+        pendingIds: model.pendingIds,
+      };
+      return noOut(
+        msg.schema
+          .map((s) => computeAllCmd(newModel, schemaService, s, msg.json))
+          .withDefaultSupply(() => noCmd(newModel)),
+      );
+    }
     case 'toggle-expand-collapse': {
       return noOut(actionToggleExpandCollapsePath(model, msg.path));
     }
@@ -532,6 +590,14 @@ export const setStrictModePort = new Port<boolean>();
 
 export const setDebounceMsPort = new Port<number>();
 
+export const resetPort = new Port<[Maybe<JsonValue>, JsonValue]>();
+
+// the menu actions, without opening the menus
+export const menuActionPort = new Port<MenuAction>();
+
+// adds a null property, as the menu's add property form, no schema needed
+export const addPropertyPort = new Port<[JsPath, string]>();
+
 export function subscriptions(model: Model): Sub<Msg> {
   // the menu's subs
   const subMenu = model.menuModel
@@ -541,11 +607,17 @@ export function subscriptions(model: Model): Sub<Msg> {
   const portSub = sendJsonPort.subscribe(setJsonStr);
   const setStrictModePortSub = setStrictModePort.subscribe(setStrictModeMsg);
   const setDebouceMsPortSub = setDebounceMsPort.subscribe(setDebounceMsMsg);
+  const resetPortSub = resetPort.subscribe(resetMsg);
+  const menuActionPortSub = menuActionPort.subscribe(menuActionMsg);
+  const addPropertyPortSub = addPropertyPort.subscribe(addPropertyNamed);
   return Sub.batch([
     subMenu,
     portSub,
     setStrictModePortSub,
     setDebouceMsPortSub,
+    resetPortSub,
+    menuActionPortSub,
+    addPropertyPortSub,
   ]);
 }
 
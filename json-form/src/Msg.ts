@@ -39,12 +39,15 @@ export type Msg =
   | { tag: 'new-property-name-key-down'; key: string }
   | { tag: 'add-prop-ok-cancel-clicked'; ok: boolean }
   | ContextMenuMsg
+  | MenuActionMsg
   | MenuTriggerClicked
   | { tag: 'set-json-str'; schema: Maybe<JsonValue>; json: JsonValue }
   | { tag: 'set-strict-mode'; strictMode: boolean }
   | { tag: 'set-debounce-ms'; debounceMs: number }
+  | { tag: 'reset'; schema: Maybe<JsonValue>; json: JsonValue }
   | ToggleExpandCollapse
   | AddPropertyButtonClicked
+  | AddPropertyNamed
   | RecomputeMetadata
   | GotMetadata
   | GotMenuProposals
@@ -59,6 +62,20 @@ export interface AddPropertyButtonClicked extends HasPath {
   readonly propertyName: string;
 }
 
+// adds the property as the menu's add property form does
+export interface AddPropertyNamed extends HasPath {
+  tag: 'add-property-named';
+  readonly propertyName: string;
+}
+
+export function addPropertyNamed(pathAndName: [JsPath, string]): Msg {
+  return {
+    tag: 'add-property-named',
+    path: pathAndName[0],
+    propertyName: pathAndName[1],
+  };
+}
+
 export interface ToggleExpandCollapse extends HasPath {
   tag: 'toggle-expand-collapse';
 }
@@ -71,6 +88,14 @@ export function setJsonStr(schemaAndJson: [Maybe<JsonValue>, JsonValue]): Msg {
   };
 }
 
+export function resetMsg(schemaAndJson: [Maybe<JsonValue>, JsonValue]): Msg {
+  return {
+    tag: 'reset',
+    schema: schemaAndJson[0],
+    json: schemaAndJson[1],
+  };
+}
+
 export function setStrictModeMsg(strictMode: boolean): Msg {
   return {
     tag: 'set-strict-mode',
@@ -102,6 +127,18 @@ export function contextMenuMsg(child: TPM.Msg<MenuAction>): Msg {
   };
 }
 
+export interface MenuActionMsg {
+  tag: 'menu-action';
+  action: MenuAction;
+}
+
+export function menuActionMsg(action: MenuAction): Msg {
+  return {
+    tag: 'menu-action',
+    action,
+  };
+}
+
 export interface NoOp {
   tag: 'no-op';
 }
@@ -20,6 +20,12 @@ export * from './JsPath';
 export * from './JsonEditor';
 export * from './OutMsg';
 export * from './Msg';
+export type { MenuAction } from './ContextMenuActions';
+export {
+  createProposeMenu,
+  getChangeTypeValues,
+} from './ContextMenuActions';
+export { getItemLabel } from './ContextMenuRenderer';
 export * from './renderer/Renderer';
 export * from './SchemaService';
 export * from './worker/SchemaServiceWorker';
@@ -143,7 +143,11 @@ export function ViewJsonValue(
     }
   };
   return (
-    <div className={'value'} data-path={p.path.format()}>
+    <div
+      className={'value'}
+      data-path={p.path.format()}
+      data-type={value.tag}
+    >
       {content()}
     </div>
   );
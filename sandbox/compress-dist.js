@@ -0,0 +1,38 @@
+// writes .gz and .br variants of the text assets of dist/, served as-is by
+// the webtests StaticServer, and by mvn jetty:run in webtests/webapp
+const fs = require('fs');
+const path = require('path');
+const zlib = require('zlib');
+
+const DIST = path.resolve(__dirname, 'dist');
+const EXTENSIONS = ['.js', '.css', '.html', '.json', '.svg', '.ttf', '.map'];
+
+function walk(dir) {
+  return fs.readdirSync(dir, { withFileTypes: true }).flatMap((e) => {
+    const p = path.join(dir, e.name);
+    return e.isDirectory() ? walk(p) : [p];
+  });
+}
+
+let count = 0;
+walk(DIST)
+  .filter((f) => EXTENSIONS.includes(path.extname(f)))
+  .forEach((f) => {
+    const data = fs.readFileSync(f);
+    const gz = zlib.gzipSync(data, { level: 9 });
+    const br = zlib.brotliCompressSync(data, {
+      params: {
+        [zlib.constants.BROTLI_PARAM_QUALITY]: 11,
+        [zlib.constants.BROTLI_PARAM_SIZE_HINT]: data.length,
+      },
+    });
+    // keep only the variants that are worth it
+    if (gz.length < data.length) {
+      fs.writeFileSync(f + '.gz', gz);
+    }
+    if (br.length < data.length) {
+      fs.writeFileSync(f + '.br', br);
+    }
+    count++;
+  });
+console.log(`compressed ${count} files in ${DIST}`);
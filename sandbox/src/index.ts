@@ -25,6 +25,7 @@ import { MyStringRenderer } from './MyStringRenderer';
 import { RatingRenderer } from './RatingRenderer';
 import { MyObjectRenderer } from './MyObjectRenderer';
 import { initialSchema, initialValue, samples } from './initdata';
+import { installTestHooks, TrackingSchemaService } from './test-hooks';
 
 const MyRendererFactory = new RendererFactory();
 MyRendererFactory.addRenderer('MyStringRenderer', MyStringRenderer);
@@ -32,7 +33,12 @@ MyRendererFactory.addRenderer('RatingRenderer', RatingRenderer);
 MyRendererFactory.addRenderer('MyObjectRenderer', MyObjectRenderer);
 
 const myworker = new Worker('myworker.bundle.js');
+// errors in the worker don't reach the page console by themselves
+myworker.addEventListener('error', (e) => {
+  console.error('Uncaught (in schema worker)', e.message);
+});
 const workerClient = new JsonForm.WorkerClient(myworker);
+const schemaService = new TrackingSchemaService(workerClient);
 
 editor1.getModel()?.onDidChangeContent(() => {
   sendJsonStr();
@@ -48,9 +54,19 @@ function getValue() {
   return JsonForm.parseJsonValue(v).toMaybe().withDefault(JsonForm.jvNull);
 }
 
+// set while the sandbox is reset, the form is re-initialized once at the end
+let resetting = false;
+
+// the last value sent to, or changed by, the form
+let formValue: JsonForm.JsonValue = JsonForm.jvNull;
+
 function sendJsonStr() {
+  if (resetting) {
+    return;
+  }
   const schema = getSchema();
   const value = getValue();
+  formValue = value;
   console.log('send JSON str', schema, value);
   JsonForm.sendJsonPort.send([schema, value]);
 }
@@ -117,6 +133,185 @@ debounceMs.addEventListener('change', () => {
   JsonForm.setDebounceMsPort.send(getDebounceMs());
 });
 
+// sets both editors, and re-initializes the form once with the result
+function loadSandbox(
+  schemaText: string,
+  valueText: string,
+  before?: () => void,
+) {
+  resetting = true;
+  try {
+    before?.();
+    editor1.setValue(schemaText);
+    editor2.setValue(valueText);
+  } finally {
+    resetting = false;
+  }
+  formValue = getValue();
+  JsonForm.resetPort.send([getSchema(), formValue]);
+}
+
+// selects the sample and loads it with the value, false if there is no sample
+// with this name
+function loadSample(sample: string, valueText: string): boolean {
+  const option = Array.from(sampleSchemaSelect.options).find(
+    (o) => o.text === sample,
+  );
+  if (!option) {
+    return false;
+  }
+  loadSandbox(option.value, valueText, () => {
+    sampleSchemaSelect.selectedIndex = option.index;
+  });
+  return true;
+}
+
+function resetControls() {
+  syncPanesCb.checked = true;
+  strictModeCb.checked = strictMode;
+  debounceMs.value = debounceMs.defaultValue;
+  JsonForm.setStrictModePort.send(strictMode);
+  JsonForm.setDebounceMsPort.send(getDebounceMs());
+}
+
+// back to the state of a freshly loaded page, without reloading it
+function resetSandbox() {
+  loadSandbox(
+    JSON.stringify(initialSchema, undefined, '  '),
+    JSON.stringify(initialValue, undefined, '  '),
+    () => {
+      sampleSchemaSelect.selectedIndex = 0;
+      resetControls();
+    },
+  );
+}
+
+// the state of a freshly loaded page after selecting the sample, keeping the
+// loaded schema. False if the sample is not selected, or its schema modified
+function resetInstance(sample: string): boolean {
+  const option = sampleSchemaSelect.options[sampleSchemaSelect.selectedIndex];
+  if (
+    !option ||
+    option.text !== sample ||
+    editor1.getValue() !== option.value
+  ) {
+    return false;
+  }
+  loadSandbox(
+    option.value,
+    JSON.stringify(initialValue, undefined, '  '),
+    resetControls,
+  );
+  return true;
+}
+
+// the proposals of the menus at this path
+async function getProposals(
+  path: JsonForm.JsPath,
+): Promise<ReadonlyArray<JsonForm.JsonValue>> {
+  const schema = getSchema();
+  if (schema.type !== 'Just') {
+    return [];
+  }
+  return schemaService.propose(schema.value, formValue, path);
+}
+
+// does what the context menu items do, without opening the menus. Resolves
+// with the path of the added or changed value, or null if the menu has no
+// such item at this path, or if it would add nothing
+async function dispatchAction(
+  action: string,
+  pathStr: string,
+  arg: string,
+): Promise<string | null> {
+  const path = JsonForm.JsPath.parse(pathStr);
+  const value = JsonForm.getValueAt(formValue, path);
+  if (value.type !== 'Just') {
+    return null;
+  }
+  const strict = strictModeCb.checked;
+  switch (action) {
+    case 'add-property': {
+      // the menu's form adds nothing without a new name
+      if (
+        strict ||
+        value.value.tag !== 'jv-object' ||
+        arg === '' ||
+        value.value.properties.some((p) => p.name === arg)
+      ) {
+        return null;
+      }
+      JsonForm.addPropertyPort.send([path, arg]);
+      return path.append(arg).format();
+    }
+    case 'add-element': {
+      if (value.value.tag !== 'jv-array') {
+        return null;
+      }
+      const index = value.value.elems.length;
+      JsonForm.menuActionPort.send({ tag: 'add', path, isArray: true });
+      return path.append(index).format();
+    }
+    case 'change-type': {
+      const proposals = await getProposals(path);
+      const newValue = JsonForm.getChangeTypeValues(
+        value.value,
+        proposals,
+        strict,
+      ).find((v) => JsonForm.valueType(v) === arg);
+      if (!newValue) {
+        return null;
+      }
+      JsonForm.menuActionPort.send({
+        tag: 'change-type',
+        path,
+        value: newValue,
+      });
+      return pathStr;
+    }
+    case 'propose': {
+      const proposals = await getProposals(path);
+      if (JsonForm.createProposeMenu(path, proposals, strict).length === 0) {
+        return null;
+      }
+      const index = proposals.findIndex(
+        (p) => JsonForm.getItemLabel(p) === arg,
+      );
+      if (index === -1) {
+        return null;
+      }
+      JsonForm.menuActionPort.send({
+        tag: 'proposal',
+        path,
+        value: proposals[index],
+        index,
+      });
+      return pathStr;
+    }
+    case 'delete': {
+      const parent = path.parent();
+      if (parent.type !== 'Just') {
+        return null;
+      }
+      JsonForm.menuActionPort.send({ tag: 'delete', path });
+      return parent.value.format();
+    }
+  }
+  return null;
+}
+
+const hooks = installTestHooks({
+  form: jsonForm,
+  editors: [editor1, editor2],
+  schemaService,
+  getDebounceMs,
+  reset: resetSandbox,
+  resetInstance,
+  load: loadSandbox,
+  loadSample,
+  dispatch: dispatchAction,
+});
+
 switch (valueRes.tag) {
   case 'Err': {
     const errNode = document.createElement('div');
@@ -136,6 +331,7 @@ function initJsonForm(
   strictMode: boolean,
   debounceMs: number,
 ) {
+  formValue = value;
   const root = createRoot(jsonForm!);
   root.render(
     JsonForm.JsonEditor({
@@ -144,14 +340,17 @@ function initJsonForm(
       language: navigator.language,
       onChange: (value: JsonForm.JsonValue) => {
         console.log('FORM value changed', value);
+        formValue = value;
         if (syncPanesCb.checked) {
-          JsonForm.stringify(value, '  ').forEach((s) => editor2.setValue(s));
+          hooks.withoutEditorInputs(() =>
+            JsonForm.stringify(value, '  ').forEach((s) => editor2.setValue(s)),
+          );
         }
       },
       strictMode,
       rendererFactory: MyRendererFactory,
       debounceMs,
-      schemaService: workerClient,
+      schemaService,
     }),
   );
 }
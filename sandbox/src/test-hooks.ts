@@ -0,0 +1,291 @@
+/*
+ * Copyright 2018 The Diesel Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// Hooks exposed as window.sandboxHooks, used by the webtests to synchronize
+// with the form instead of polling the DOM.
+
+import {
+  JsonValue,
+  JsPath,
+  SchemaService,
+  ValidationResult,
+} from '@diesel-parser/json-form';
+
+// counts the requests in flight to the schema worker
+export class TrackingSchemaService implements SchemaService {
+  private pending = 0;
+  private lastActivity = performance.now();
+
+  // called with the start and end times of each successful validation
+  onValidated: (start: number, end: number) => void = () => {};
+
+  constructor(private readonly delegate: SchemaService) {}
+
+  validate(schema: JsonValue, instance: JsonValue): Promise<ValidationResult> {
+    const start = performance.now();
+    return this.track(this.delegate.validate(schema, instance)).then((r) => {
+      this.onValidated(start, performance.now());
+      return r;
+    });
+  }
+
+  propose(
+    schema: JsonValue,
+    instance: JsonValue,
+    path: JsPath,
+  ): Promise<readonly JsonValue[]> {
+    return this.track(this.delegate.propose(schema, instance, path));
+  }
+
+  isBusy(): boolean {
+    return this.pending > 0;
+  }
+
+  getLastActivity(): number {
+    return this.lastActivity;
+  }
+
+  private track<T>(p: Promise<T>): Promise<T> {
+    this.pending++;
+    this.lastActivity = performance.now();
+    const done = () => {
+      this.pending--;
+      this.lastActivity = performance.now();
+    };
+    return p.then(
+      (r) => {
+        done();
+        return r;
+      },
+      (e) => {
+        done();
+        throw e;
+      },
+    );
+  }
+}
+
+interface Validation {
+  readonly start: number;
+  readonly end: number;
+  rendered?: number;
+}
+
+// input -> validation -> render timestamps, also added as performance marks
+// so that they show in the DevTools traces
+class LatencyRecorder {
+  private readonly inputs: number[] = [];
+  private readonly validations: Validation[] = [];
+  private awaitingRender: Validation | undefined;
+
+  input(): void {
+    this.inputs.push(performance.now());
+    performance.mark('sandbox:input');
+  }
+
+  validated(start: number, end: number): void {
+    const v = { start, end };
+    this.validations.push(v);
+    this.awaitingRender = v;
+    performance.mark('sandbox:validated');
+  }
+
+  mutated(): void {
+    if (this.awaitingRender) {
+      this.awaitingRender.rendered = performance.now();
+      this.awaitingRender = undefined;
+      performance.mark('sandbox:rendered');
+    }
+  }
+
+  // [input to validation response, input to re-render] in ms, for each input
+  // followed by a validation. Keystrokes within the debounce delay share the
+  // same validation.
+  latencies(): number[][] {
+    const validations = this.validations
+      .slice()
+      .sort((a, b) => a.start - b.start);
+    const res: number[][] = [];
+    let i = 0;
+    this.inputs.forEach((t) => {
+      while (i < validations.length && validations[i].start < t) {
+        i++;
+      }
+      if (i < validations.length) {
+        const v = validations[i];
+        res.push([v.end - t, (v.rendered ?? v.end) - t]);
+      }
+    });
+    return res;
+  }
+}
+
+export interface HookedEditor {
+  onDidChangeModelContent(listener: () => void): unknown;
+}
+
+export interface TestHooksConfig {
+  readonly form: HTMLElement;
+  readonly editors: readonly HookedEditor[];
+  readonly schemaService: TrackingSchemaService;
+  readonly getDebounceMs: () => number;
+  readonly reset: () => void;
+  readonly resetInstance: (sample: string) => boolean;
+  readonly load: (schema: string, value: string) => void;
+  readonly loadSample: (sample: string, value: string) => boolean;
+  readonly dispatch: (
+    action: string,
+    path: string,
+    arg: string,
+  ) => Promise<string | null>;
+}
+
+export class SandboxHooks {
+  private lastMutation = performance.now();
+  private lastInput = performance.now();
+  private latency: LatencyRecorder | undefined;
+  private ignoreEditors = false;
+  private renderGeneration = 0;
+
+  constructor(private readonly config: TestHooksConfig) {
+    // structural changes only : nodes added, removed, or given another path
+    new MutationObserver(() => {
+      this.renderGeneration++;
+    }).observe(config.form, {
+      childList: true,
+      subtree: true,
+      attributes: true,
+      attributeFilter: ['data-path', 'id'],
+    });
+    new MutationObserver(() => {
+      this.lastMutation = performance.now();
+      this.latency?.mutated();
+    }).observe(config.form, {
+      childList: true,
+      subtree: true,
+      attributes: true,
+      characterData: true,
+    });
+    const touch = () => {
+      this.lastInput = performance.now();
+    };
+    ['input', 'change', 'keydown', 'click'].forEach((type) =>
+      document.addEventListener(type, touch, true),
+    );
+    document.addEventListener('input', () => this.latency?.input(), true);
+    config.editors.forEach((e) =>
+      e.onDidChangeModelContent(() => {
+        touch();
+        if (!this.ignoreEditors) {
+          this.latency?.input();
+        }
+      }),
+    );
+    config.schemaService.onValidated = (start, end) =>
+      this.latency?.validated(start, end);
+  }
+
+  // editor changes made by the page itself (e.g. the form value copied
+  // to the JSON editor) are not user inputs
+  withoutEditorInputs(f: () => void): void {
+    this.ignoreEditors = true;
+    try {
+      f();
+    } finally {
+      this.ignoreEditors = false;
+    }
+  }
+
+  startLatency(): void {
+    this.latency = new LatencyRecorder();
+  }
+
+  stopLatency(): number[][] {
+    const res = this.latency?.latencies() ?? [];
+    this.latency = undefined;
+    return res;
+  }
+
+  // idle : no pending validation, debounce elapsed, and no DOM change for quietMs
+  isIdle(quietMs: number): boolean {
+    const now = performance.now();
+    return (
+      !this.config.schemaService.isBusy() &&
+      now - this.config.schemaService.getLastActivity() >= quietMs &&
+      now - this.lastMutation >= quietMs &&
+      now - this.lastInput >= this.config.getDebounceMs() + quietMs
+    );
+  }
+
+  // changes when the form nodes are re-created or moved, so that the webtests
+  // know when the elements they hold no longer match the same paths
+  generation(): number {
+    return this.renderGeneration;
+  }
+
+  // used by the webtests to reuse a loaded page between tests
+  reset(): void {
+    this.latency = undefined;
+    this.config.reset();
+  }
+
+  // keeps the schema of the sample if loaded, used by the webtests to share it
+  // between the tests of a sample
+  resetInstance(sample: string): boolean {
+    this.latency = undefined;
+    return this.config.resetInstance(sample);
+  }
+
+  // sets the schema and value in one go, used by the webtests to skip the UI setup
+  load(schema: string, value: string): void {
+    this.config.load(schema, value);
+  }
+
+  loadSample(sample: string, value: string): boolean {
+    return this.config.loadSample(sample, value);
+  }
+
+  // runs a context menu action (add-property, add-element, change-type,
+  // propose or delete) on the value at path, used by the webtests to skip the menus.
+  // Resolves with the path of the resulting value, null if not applicable
+  dispatch(action: string, path: string, arg: string): Promise<string | null> {
+    return this.config.dispatch(action, path, arg);
+  }
+
+  // resolves false if the form is still busy after timeoutMs
+  whenIdle(quietMs = 50, timeoutMs = 5000): Promise<boolean> {
+    const deadline = performance.now() + timeoutMs;
+    return new Promise((resolve) => {
+      const check = () => {
+        if (this.isIdle(quietMs)) {
+          resolve(true);
+        } else if (performance.now() >= deadline) {
+          resolve(false);
+        } else {
+          setTimeout(check, 10);
+        }
+      };
+      check();
+    });
+  }
+}
+
+export function installTestHooks(config: TestHooksConfig): SandboxHooks {
+  const hooks = new SandboxHooks(config);
+  // @ts-ignore
+  window['sandboxHooks'] = hooks;
+  return hooks;
+}
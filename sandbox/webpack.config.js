@@ -7,7 +7,9 @@ module.exports = {
   entry: './src/index.ts',
   devtool: 'inline-source-map',
   output: {
-    filename: '[name].bundle.js',
+    // hashed names, served with a long-lived Cache-Control by the webtests
+    // StaticServer (and mvn jetty:run in webtests/webapp)
+    filename: 'assets/[name].[contenthash].bundle.js',
     path: path.resolve(__dirname, 'dist'),
   },
   module: {
@@ -0,0 +1,40 @@
+package diesel.json.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// runs the benchmarks in throughput mode with the GC profiler (allocation rates),
+// accepts the usual JMH command line (filters, -f, -wi, -i...). The defaults below
+// only apply when not given on the command line (-bm, -tu, -rf, -rff)
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmdLine = new CommandLineOptions(args);
+        // options set on the builder take precedence over its parent
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(cmdLine)
+                .addProfiler(GCProfiler.class);
+        if (cmdLine.getBenchModes().isEmpty()) {
+            builder.mode(Mode.Throughput);
+        }
+        if (!cmdLine.getTimeUnit().hasValue()) {
+            builder.timeUnit(TimeUnit.SECONDS);
+        }
+        if (!cmdLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmdLine.getResult().hasValue()) {
+            builder.result(System.getProperty("webtests.benchmarks.result", "target/jmh-result.json"));
+        }
+        new Runner(builder.build()).run();
+    }
+}
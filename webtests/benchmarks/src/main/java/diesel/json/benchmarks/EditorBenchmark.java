@@ -0,0 +1,25 @@
+package diesel.json.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EditorBenchmark {
+
+    @Benchmark
+    public void typeText(SandboxState state) {
+        state.sandbox.jsonEditor
+                .clearText()
+                .typeText(SandboxState.CUSTOMER);
+    }
+
+    @Benchmark
+    public void setTextBulk(SandboxState state) {
+        state.sandbox.jsonEditor
+                .setTextBulk(SandboxState.CUSTOMER);
+    }
+}
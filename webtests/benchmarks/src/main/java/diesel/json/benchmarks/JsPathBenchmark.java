@@ -0,0 +1,52 @@
+package diesel.json.benchmarks;
+
+import diesel.json.JsPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// pure java, no browser needed
+@State(Scope.Thread)
+public class JsPathBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int depth;
+
+    private JsPath path;
+
+    @Setup
+    public void setup() {
+        JsPath p = JsPath.empty;
+        for (int i = 0; i < depth; i++) {
+            p = i % 2 == 0 ? p.append("prop" + i) : p.append(i);
+        }
+        path = p;
+    }
+
+    @Benchmark
+    public JsPath append() {
+        return path.append("leaf");
+    }
+
+    @Benchmark
+    public JsPath appendIndex() {
+        return path.append(3);
+    }
+
+    @Benchmark
+    public String format() {
+        return path.format();
+    }
+
+    @Benchmark
+    public String formatForId() {
+        return path.format("_");
+    }
+
+    @Benchmark
+    public String appendAndFormat() {
+        return path.append("leaf").format();
+    }
+}
@@ -0,0 +1,44 @@
+package diesel.json.benchmarks;
+
+import diesel.json.FJsonForm;
+import diesel.json.JsPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+// lookups on an idle form : measures the helpers and their WebDriver round trips
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PageObjectBenchmark {
+
+    private static final JsPath CUSTOMER = JsPath.empty.append("customer");
+
+    private static final JsPath AGE = CUSTOMER.append("age");
+
+    @Benchmark
+    public void objectAssertProperties(SandboxState state) {
+        state.sandbox.jsonForm
+                .objectAt(CUSTOMER)
+                .assertProperties("firstName", "lastName", "amount", "age");
+    }
+
+    @Benchmark
+    public void numberAssertValue(SandboxState state) {
+        state.sandbox.jsonForm
+                .numberAt(AGE)
+                .assertValue("12");
+    }
+
+    @Benchmark
+    public Object findValueNode(SandboxState state) {
+        FJsonForm form = state.sandbox.jsonForm;
+        return form.numberAt(AGE).findInput().eval(e -> e);
+    }
+
+    @Benchmark
+    public int snapshot(SandboxState state) {
+        return state.sandbox.jsonForm.snapshot().size();
+    }
+}
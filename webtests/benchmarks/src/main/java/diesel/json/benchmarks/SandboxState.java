@@ -0,0 +1,52 @@
+package diesel.json.benchmarks;
+
+import com.pojosontheweb.selenium.Findr;
+import diesel.json.FSandbox;
+import diesel.json.driver.ChromeDriverFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openqa.selenium.WebDriver;
+
+// a headless chrome on the sandbox, shared by all the threads of a benchmark
+@State(Scope.Benchmark)
+public class SandboxState {
+
+    public static final String SYSPROP_BASE_URL = "webtests.baseUrl";
+
+    static final String CUSTOMER = "{\n" +
+            "  \"customer\": {\n" +
+            "    \"firstName\": \"John\",\n" +
+            "    \"lastName\": \"Doe\",\n" +
+            "    \"amount\": 100,\n" +
+            "    \"age\": 12\n" +
+            "  }\n" +
+            "}";
+
+    WebDriver driver;
+
+    FSandbox sandbox;
+
+    @Setup(Level.Trial)
+    public void openSandbox() {
+        // headless throughput profile unless overridden by the webtests.chrome.* properties
+        if (System.getProperty(ChromeDriverFactory.SYSPROP_PROFILE) == null) {
+            System.setProperty(ChromeDriverFactory.SYSPROP_PROFILE, "throughput");
+        }
+        driver = ChromeDriverFactory.fromSystemProperties().create("en");
+        driver.get(System.getProperty(SYSPROP_BASE_URL, "http://localhost:3000"));
+        sandbox = new FSandbox(new Findr(driver));
+        sandbox.selectSample("BeanContainingOtherBean");
+        sandbox.jsonEditor.setTextBulk(CUSTOMER);
+        sandbox.jsonEditor.assertText(CUSTOMER);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeSandbox() {
+        if (driver != null) {
+            driver.quit();
+        }
+    }
+}
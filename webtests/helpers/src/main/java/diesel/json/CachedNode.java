@@ -0,0 +1,133 @@
+package diesel.json;
+
+import diesel.json.util.RenderSync;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+// a locator that remembers the element it found, and hands it out again as long as the
+// form has not been re-rendered (see RenderSync.generation) and the element is still in the
+// page. Both are checked in a single script, in place of the lookup.
+// Disabled with webtests.handles.cache=false
+class CachedNode extends By {
+
+    // the current generation if the element is still in the page, -1 otherwise
+    private static final String CHECK_SCRIPT =
+            "var hooks = window.sandboxHooks;\n" +
+            "if (!arguments[0].isConnected || !hooks || !hooks.generation) {\n" +
+            "  return -1;\n" +
+            "}\n" +
+            "return hooks.generation();";
+
+    static final String SYSPROP_ENABLED = "webtests.handles.cache";
+
+    static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(SYSPROP_ENABLED, "true"));
+    }
+
+    private final By delegate;
+    private WebElement cached;
+    private long cachedGeneration = -1;
+
+    CachedNode(By delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        if (!(context instanceof JavascriptExecutor)) {
+            return delegate.findElements(context);
+        }
+        JavascriptExecutor js = (JavascriptExecutor) context;
+        if (cached != null && currentGeneration(js) == cachedGeneration) {
+            return Collections.singletonList(cached);
+        }
+        // read before the lookup : a render in between makes the next check miss
+        long generation = RenderSync.generation(js);
+        List<WebElement> found = delegate.findElements(context);
+        if (found.size() == 1 && generation != -1) {
+            cached = handle(found.get(0));
+            cachedGeneration = generation;
+            return Collections.singletonList(cached);
+        }
+        cached = null;
+        return found;
+    }
+
+    private long currentGeneration(JavascriptExecutor js) {
+        try {
+            Object res = js.executeScript(CHECK_SCRIPT, ((WrapsElement) cached).getWrappedElement());
+            return res instanceof Number ? ((Number) res).longValue() : -1L;
+        } catch (StaleElementReferenceException e) {
+            return -1L;
+        }
+    }
+
+    void invalidate() {
+        cached = null;
+    }
+
+    // a WrapsDriver too when the element is, so that page queries can run scripts on it
+    private WebElement handle(WebElement element) {
+        Class<?>[] interfaces = element instanceof WrapsDriver
+                ? new Class<?>[]{WebElement.class, WrapsElement.class, WrapsDriver.class}
+                : new Class<?>[]{WebElement.class, WrapsElement.class};
+        return (WebElement) Proxy.newProxyInstance(
+                CachedNode.class.getClassLoader(),
+                interfaces,
+                new Handle(this, element));
+    }
+
+    private static class Handle implements InvocationHandler {
+
+        private final CachedNode owner;
+        private final WebElement element;
+
+        Handle(CachedNode owner, WebElement element) {
+            this.owner = owner;
+            this.element = element;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getWrappedElement")) {
+                return element;
+            }
+            if (method.getName().equals("getWrappedDriver")) {
+                return ((WrapsDriver) element).getWrappedDriver();
+            }
+            if (method.getName().equals("equals")) {
+                Object other = args[0];
+                if (other instanceof WrapsElement && Proxy.isProxyClass(other.getClass())
+                        && Proxy.getInvocationHandler(other) instanceof Handle) {
+                    other = ((WrapsElement) other).getWrappedElement();
+                }
+                return element.equals(other);
+            }
+            try {
+                return method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof StaleElementReferenceException) {
+                    owner.invalidate();
+                }
+                throw e.getCause();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachedNode(" + delegate + ")";
+    }
+}
@@ -0,0 +1,58 @@
+package diesel.json;
+
+import com.pojosontheweb.selenium.AbstractPageObject;
+import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
+import diesel.json.util.RenderSync;
+import org.openqa.selenium.JavascriptExecutor;
+
+// what the context menu items do, through the sandbox hooks instead of the menus (see FMenu).
+// Returns the added or changed path, IllegalArgumentException when the menu would do nothing
+public class FActions extends AbstractPageObject {
+
+    private static final String DISPATCH_SCRIPT =
+            "var done = arguments[arguments.length - 1];\n" +
+            "window.sandboxHooks.dispatch(arguments[0], arguments[1], arguments[2]).then(\n" +
+            "  done,\n" +
+            "  function() { done(null); });";
+
+    public FActions(Findr findr) {
+        super(findr);
+    }
+
+    private JsPath dispatch(String action, JsPath path, String arg) {
+        Recorder.record(action, path, arg);
+        // the action applies to the current value of the form
+        RenderSync.awaitIdle(getDriver());
+        Object res = ((JavascriptExecutor) getDriver())
+                .executeAsyncScript(DISPATCH_SCRIPT, action, path.format(), arg);
+        if (res == null) {
+            throw new IllegalArgumentException("Unable to " + action + " " + arg + " at '" + path + "'");
+        }
+        RenderSync.awaitIdle(getDriver());
+        return JsPath.parse((String) res);
+    }
+
+    public JsPath addProperty(JsPath ownerPath, String propertyName) {
+        return dispatch("add-property", ownerPath, propertyName);
+    }
+
+    public JsPath addElement(JsPath arrayPath) {
+        return dispatch("add-element", arrayPath, "");
+    }
+
+    // type as in the "Change type" menu : null, string, number, boolean, object or array
+    public JsPath changeType(JsPath path, String type) {
+        return dispatch("change-type", path, type);
+    }
+
+    // proposal as in the "Propose" menu, e.g. "{ what }"
+    public JsPath propose(JsPath path, String proposal) {
+        return dispatch("propose", path, proposal);
+    }
+
+    // returns the path of the parent
+    public JsPath delete(JsPath path) {
+        return dispatch("delete", path, "");
+    }
+}
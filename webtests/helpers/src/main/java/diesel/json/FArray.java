@@ -17,8 +17,7 @@ public class FArray extends FJsonValue {
     }
 
     private Findr.ListFindr findElems() {
-        return getFindr().elemList(
-                By.xpath("./div[contains(@class,'array-elem')]"));
+        return getFindr().elemList(PageQueries.arrayElems());
     }
 
     public FString getStringCell(int index) {
@@ -29,7 +28,9 @@ public class FArray extends FJsonValue {
     }
 
     public FArray assertLength(int expectedLength) {
-        findElems().count(expectedLength).eval();
+        awaitIdle();
+        getFindr().eval(e ->
+                ((Number) PageQueries.call(e, "arrayLength", e)).intValue() == expectedLength);
         return this;
     }
 
@@ -40,10 +41,11 @@ public class FArray extends FJsonValue {
                 .$$(".prop-menu button")
                 .expectOne()
                 .click();
-        return new FMenu(fRoot);
+        return new FMenu(fRoot, path.append(index));
     }
 
     public FArray assertError(String expectedError) {
+        awaitIdle();
         getFindr()
                 .elem(By.xpath("./*[contains(@class,'form-errors')]"))
                 .where(textEquals(expectedError))
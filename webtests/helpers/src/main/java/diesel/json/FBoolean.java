@@ -1,6 +1,7 @@
 package diesel.json;
 
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
 import org.openqa.selenium.WebElement;
 
 import java.util.function.Predicate;
@@ -22,6 +23,7 @@ public class FBoolean extends FJsonValue {
 
 
     public FBoolean assertChecked(boolean checked) {
+        awaitIdle();
         findCheckbox().where(e ->
             e.isSelected() == checked
         ).eval();
@@ -29,6 +31,7 @@ public class FBoolean extends FJsonValue {
     }
 
     public FBoolean clickCheckbox() {
+        Recorder.record("boolean.click", path);
         $$(".checkbox-wrapper label").expectOne().click();
         return this;
     }
@@ -2,21 +2,32 @@ package diesel.json;
 
 import com.pojosontheweb.selenium.AbstractPageObject;
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.util.RenderSync;
+import org.openqa.selenium.TimeoutException;
 
-import static com.pojosontheweb.selenium.Findrs.attrEquals;
+import java.util.function.Consumer;
 
 public class FJsonForm extends AbstractPageObject {
 
     private final Findr fRoot;
+    private final String cssSelector;
 
     public FJsonForm(Findr findr, String cssSelector) {
         super(findr.$$(cssSelector).expectOne());
         this.fRoot = findr;
+        this.cssSelector = cssSelector;
     }
 
+    // with the handle cache, the node is found (form included) once, and reused
+    // by all the calls on the returned page object until the form re-renders
     private Findr findValueNode(JsPath path) {
-        return $$("div.value")
-                .where(attrEquals("data-path", path.format()))
+        if (CachedNode.isEnabled()) {
+            return fRoot
+                    .elemList(new CachedNode(PageQueries.within(cssSelector, PageQueries.valueNode(path))))
+                    .expectOne();
+        }
+        return getFindr()
+                .elemList(PageQueries.valueNode(path))
                 .expectOne();
     }
 
@@ -48,16 +59,64 @@ public class FJsonForm extends AbstractPageObject {
         return new FSelect(path, findValueNode(path));
     }
 
+    public FSnapshot snapshot() {
+        RenderSync.awaitIdle(getDriver());
+        return getFindr().eval(e -> FSnapshot.capture(getDriver(), e));
+    }
+
+    // captures snapshots until the assertions pass, or fails with the last assertion error
+    public FSnapshot waitForSnapshot(Consumer<FSnapshot> assertions) {
+        RenderSync.awaitIdle(getDriver());
+        AssertionError[] lastError = new AssertionError[1];
+        try {
+            return getFindr().eval(e -> {
+                FSnapshot snapshot = FSnapshot.capture(getDriver(), e);
+                try {
+                    assertions.accept(snapshot);
+                    return snapshot;
+                } catch (AssertionError err) {
+                    lastError[0] = err;
+                    return null;
+                }
+            });
+        } catch (TimeoutException e) {
+            if (lastError[0] != null) {
+                throw lastError[0];
+            }
+            throw e;
+        }
+    }
+
     public FJsonForm assertMenuClosed() {
         $$(".tm").count(0).eval();
         return this;
     }
 
+    // the menu actions, without the menus
+    public FActions actions() {
+        return new FActions(fRoot);
+    }
+
+    // opens the menu of the value at the path, from the row of the property or
+    // element in its parent, or the root menu
+    public FMenu clickMenu(JsPath path) {
+        if (path.isEmpty()) {
+            return clickRootMenu();
+        }
+        JsPath parent = path.parent().orElse(JsPath.empty);
+        String last = path.last().orElse("");
+        // the value nodes have the type of their value
+        boolean inArray = "jv-array".equals(findValueNode(parent).eval(e -> e.getAttribute("data-type")));
+        return inArray
+                ? arrayAt(parent).clickItemMenu(Integer.parseInt(last))
+                : objectAt(parent).clickPropertyMenu(last);
+    }
+
     public FMenu clickRootMenu() {
         $$(".doc-root .cds--tooltip-trigger__wrapper button")
             .expectOne()
             .click();
-        return new FMenu(fRoot);
+        return new FMenu(fRoot, JsPath.empty);
     }
 
 }
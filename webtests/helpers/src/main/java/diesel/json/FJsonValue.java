@@ -2,7 +2,10 @@ package diesel.json;
 
 import com.pojosontheweb.selenium.AbstractPageObject;
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.util.RenderSync;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
 
 public class FJsonValue extends AbstractPageObject {
 
@@ -12,6 +15,31 @@ public class FJsonValue extends AbstractPageObject {
         super(findr);
         this.path = path;
     }
-    
+
+    // wait for the form to settle, instead of letting the assertion poll the DOM
+    protected void awaitIdle() {
+        RenderSync.awaitIdle(getDriver());
+    }
+
+    // arguments : the input, the value, and whether to press Enter
+    public static final String SET_VALUE_SCRIPT =
+            "var input = arguments[0];\n" +
+            "input.focus();\n" +
+            "var proto = input instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;\n" +
+            "// the native setter, so that react sees the change\n" +
+            "Object.getOwnPropertyDescriptor(proto, 'value').set.call(input, arguments[1]);\n" +
+            "input.dispatchEvent(new Event('input', {bubbles: true}));\n" +
+            "input.dispatchEvent(new Event('change', {bubbles: true}));\n" +
+            "if (arguments[2]) {\n" +
+            "  ['keydown', 'keypress', 'keyup'].forEach(function(type) {\n" +
+            "    input.dispatchEvent(new KeyboardEvent(type, {key: 'Enter', code: 'Enter', keyCode: 13, which: 13, bubbles: true}));\n" +
+            "  });\n" +
+            "}\n" +
+            "return true;";
+
+    // InputMode.FAST : sets the value of the input in one round trip
+    protected void setInputValue(Findr input, String value, boolean pressEnter) {
+        input.eval((WebElement e) -> ((JavascriptExecutor) getDriver()).executeScript(SET_VALUE_SCRIPT, e, value, pressEnter));
+    }
 
 }
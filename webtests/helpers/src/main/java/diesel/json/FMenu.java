@@ -2,25 +2,35 @@ package diesel.json;
 
 import com.pojosontheweb.selenium.AbstractPageObject;
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
 import org.openqa.selenium.interactions.Actions;
 
 import static com.pojosontheweb.selenium.Findrs.textEquals;
 
 public class FMenu extends AbstractPageObject {
 
+    // the path of the value the menu is opened for, null if unknown
+    private final JsPath path;
+
     public FMenu(Findr findr) {
+        this(findr, null);
+    }
+
+    public FMenu(Findr findr, JsPath path) {
         super(findr);
+        this.path = path;
     }
 
-    private Findr findMenu(int index) {
-        return $$(".diesel-json-editor-menu .tm")
-                .at(index);
+    // recorded as the direct action, with the same effect
+    private void record(String action, String arg) {
+        if (path != null) {
+            Recorder.record(action, path, arg);
+        }
     }
 
     private Findr findMenuItem(int menuIndex, String itemText) {
-        return findMenu(menuIndex)
-                .$$(".menu-item span")
-                .where(textEquals(itemText))
+        return getFindr()
+                .elemList(PageQueries.menuItem(menuIndex, itemText))
                 .at(0);
     }
 
@@ -44,19 +54,23 @@ public class FMenu extends AbstractPageObject {
     }
 
     public void clickChangeType(String type) {
+        record("change-type", type);
         hoverMenuItem(0, "Change type");
         clickMenuItem(1, type);
     }
 
     public void clickAddElement() {
+        record("add-element", "");
         clickMenuItem(0, "Add element");
     }
 
     public void clickDeleteElement() {
+        record("delete", "");
         clickMenuItem(0, "Delete");
     }
 
     public void clickPropose(String type) {
+        record("propose", type);
         hoverMenuItem(0, "Propose");
         clickMenuItem(1, type);
     }
@@ -76,6 +90,10 @@ public class FMenu extends AbstractPageObject {
         }
 
         public void clickAdd() {
+            if (Recorder.isRecording()) {
+                // the name in the input, set or not by setPropertyName
+                record("add-property", $("#property-name-editor").eval(e -> e.getAttribute("value")));
+            }
             findAddForm()
                     .$$(".buttons-row button")
                     .where(textEquals("Add"))
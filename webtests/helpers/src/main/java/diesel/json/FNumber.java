@@ -2,6 +2,8 @@ package diesel.json;
 
 import com.pojosontheweb.selenium.Findr;
 import com.pojosontheweb.selenium.Retry;
+import diesel.json.script.Recorder;
+import diesel.json.util.InputMode;
 
 import static com.pojosontheweb.selenium.Findrs.*;
 
@@ -16,17 +18,20 @@ public class FNumber extends FJsonValue {
     }
 
     public FNumber assertValue(String expected) {
+        awaitIdle();
         findInput().where(attrEquals("value", expected)).eval();
         return this;
     }
 
     public FNumber assertHasError(String expected) {
+        awaitIdle();
         $$(".cds--form-requirement").where(textEquals(expected)).count(1).eval();
         findInput().where((attrEquals("data-invalid", "true"))).eval();
         return this;
     }
 
     public FNumber assertNoError() {
+        awaitIdle();
         $$(".cds--form-requirement").count(0).eval();
         findInput().where(not(attrEquals("data-invalid", "true"))).eval();
 
@@ -34,6 +39,15 @@ public class FNumber extends FJsonValue {
     }
 
     public FNumber setValue(String value) {
+        return setValue(value, InputMode.current());
+    }
+
+    public FNumber setValue(String value, InputMode mode) {
+        Recorder.record("number.set", path, value, mode);
+        if (mode == InputMode.FAST) {
+            setInputValue(findInput(), value, false);
+            return assertValue(value);
+        }
         Retry.retry()
                 .add(() -> findInput().clear())
                 .add(() -> findInput().sendKeys(value))
@@ -2,8 +2,8 @@ package diesel.json;
 
 import com.pojosontheweb.selenium.Findr;
 import com.pojosontheweb.selenium.Findrs;
+import diesel.json.script.Recorder;
 import org.openqa.selenium.By;
-import org.openqa.selenium.WebElement;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -21,6 +21,7 @@ public class FObject extends FJsonValue {
     }
 
     public FObject assertEmpty() {
+        awaitIdle();
         getFindr()
                 .elem(By.xpath("./*[contains(@class,'empty-obj')]"))
                 .eval();
@@ -28,6 +29,7 @@ public class FObject extends FJsonValue {
     }
 
     public FObject assertError(String expectedError) {
+        awaitIdle();
         getFindr()
                 .elem(By.xpath("./*[contains(@class,'form-errors')]"))
                 .where(textEquals(expectedError))
@@ -35,68 +37,42 @@ public class FObject extends FJsonValue {
         return this;
     }
 
-    private Findr.ListFindr findPropButtons() {
-        return getFindr()
-                .elemList(
-                        By.xpath("./div/div[contains(@class,'add-prop-row')]/button"));
+    // names are read in the page, in a single call
+    private boolean hasNames(String function, List<String> expected) {
+        return getFindr().eval(e -> expected.equals(PageQueries.call(e, function, e)));
     }
 
     public FObject assertAddPropButtons(String prop, String... rest) {
+        awaitIdle();
         List<String> props = Stream.concat(
                 Stream.of(prop),
                 Stream.of(rest)).collect(Collectors.toList());
-
-        findPropButtons()
-                .eval(elems -> {
-                    List<String> actual = elems.stream().map(WebElement::getText).collect(Collectors.toList());
-                    return actual.equals(props);
-                });
-
+        hasNames("addPropButtonNames", props);
         return this;
     }
 
     public FObject clickAddPropButton(String propName) {
-        findPropButtons().where(textEquals(propName)).expectOne().click();
+        Recorder.record("add-prop-button", path, propName);
+        getFindr().elemList(PageQueries.addPropButton(propName)).expectOne().click();
         return this;
     }
 
     public FObject assertProperties(String... props) {
-        List<String> expected = Stream.of(props).collect(Collectors.toList());
-        getFindr()
-                .elemList(
-                        By.xpath(
-                                "./div[contains(@class,'object-prop')]/div[contains(@class,'prop-name-row')]/div[contains(@class,'prop-name')]"))
-                .eval(elems -> {
-                    List<String> actual = elems.stream().map(WebElement::getText).collect(Collectors.toList());
-                    return actual.equals(expected);
-                });
+        awaitIdle();
+        hasNames("propNames", Stream.of(props).collect(Collectors.toList()));
         return this;
     }
 
     public FObject assertEmptyProperties(String... props) {
-        List<String> expected = Stream.of(props).collect(Collectors.toList());
-        getFindr()
-                .elemList(
-                        By.xpath(
-                                "./div/div[contains(@class,'add-prop-row')]/button"))
-                .eval(elems -> {
-                    List<String> actual = elems.stream().map(WebElement::getText).collect(Collectors.toList());
-                    return actual.equals(expected);
-                });
+        awaitIdle();
+        hasNames("addPropButtonNames", Stream.of(props).collect(Collectors.toList()));
         return this;
     }
 
+    // all the property row lookups (assertions, menus, selects) wait for the form first
     private Findr findPropRow(String propName) {
-        return getFindr().elemList(By.xpath("./div[contains(@class,'object-prop')]"))
-                .where(e -> {
-                    WebElement propNameElem = e.findElement(
-                            By.xpath(
-                                    "./div[contains(@class,'prop-name-row')]/div[contains(@class,'prop-name')]"));
-                    if (propNameElem == null) {
-                        return false;
-                    }
-                    return propNameElem.getText().equals(propName);
-                })
+        awaitIdle();
+        return getFindr().elemList(PageQueries.propRow(propName))
                 .expectOne();
     }
 
@@ -111,7 +87,7 @@ public class FObject extends FJsonValue {
                 .$$(".prop-menu button")
                 .expectOne()
                 .click();
-        return new FMenu(fRoot);
+        return new FMenu(fRoot, path.append(propName));
     }
 
     public FObject assertArrayLength(String propName, int expectedCount) {
@@ -124,6 +100,7 @@ public class FObject extends FJsonValue {
     }
 
     public FObject selectPropertyValue(String property, String value) {
+        Recorder.record("object.select", path, property, value);
         Findr findSelect = findPropRow(property)
                 .$$(".cds--list-box__menu-icon")
                 .expectOne();
@@ -1,6 +1,7 @@
 package diesel.json;
 
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
 
 import static com.pojosontheweb.selenium.Findrs.*;
 
@@ -15,12 +16,14 @@ public class FSelect extends FJsonValue {
     }
 
     public FSelect selectValue(String value) {
+        Recorder.record("select", path, value);
         findInput().click();
         $("div").where(textEquals(value)).click();
         return this;
     }
 
     public FSelect assertValue(String expected) {
+        awaitIdle();
         findInput().where(attrEquals("value", expected)).eval();
         return this;
     }
@@ -0,0 +1,165 @@
+package diesel.json;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// all the values rendered by a form, captured in a single script : assertions on it don't hit the browser
+public class FSnapshot {
+
+    private static final String CAPTURE_SCRIPT =
+            "var root = arguments[0];\n" +
+            "function own(n, elems) {\n" +
+            "  return Array.prototype.filter.call(elems, function(e) { return e.closest('div.value') === n; });\n" +
+            "}\n" +
+            "return Array.prototype.map.call(root.querySelectorAll('div.value'), function(n) {\n" +
+            "  var type = n.getAttribute('data-type');\n" +
+            "  var input = own(n, n.querySelectorAll('input'))[0];\n" +
+            "  var value = null;\n" +
+            "  if (type === 'jv-boolean' && input) {\n" +
+            "    value = '' + input.checked;\n" +
+            "  } else if (input) {\n" +
+            "    value = input.value;\n" +
+            "  }\n" +
+            "  var errors = own(n, n.querySelectorAll('.form-errors, .cds--form-requirement'))\n" +
+            "    .map(function(e) { return e.textContent; });\n" +
+            "  return {\n" +
+            "    path: n.getAttribute('data-path'),\n" +
+            "    type: type,\n" +
+            "    value: value,\n" +
+            "    invalid: !!input && input.getAttribute('data-invalid') === 'true',\n" +
+            "    errors: errors\n" +
+            "  };\n" +
+            "});";
+
+    public static class Node {
+
+        private final String path;
+        private final String type;
+        private final String value;
+        private final boolean invalid;
+        private final List<String> errors;
+        private final List<String> childKeys = new ArrayList<>();
+
+        private Node(String path, String type, String value, boolean invalid, List<String> errors) {
+            this.path = path;
+            this.type = type;
+            this.value = value;
+            this.invalid = invalid;
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        // the json value tag : jv-object, jv-array, jv-string, jv-number, jv-boolean or jv-null
+        public String getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isInvalid() {
+            return invalid;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public List<String> getChildKeys() {
+            return Collections.unmodifiableList(childKeys);
+        }
+
+        public Node assertType(String expected) {
+            check(expected.equals(type), "type", expected, type);
+            return this;
+        }
+
+        public Node assertValue(String expected) {
+            check(expected.equals(value), "value", expected, value);
+            return this;
+        }
+
+        public Node assertNoError() {
+            check(errors.isEmpty() && !invalid, "errors", "[]", errors.toString());
+            return this;
+        }
+
+        public Node assertError(String expectedError) {
+            boolean found = errors.stream().anyMatch(e -> e.contains(expectedError));
+            check(found, "errors", expectedError, errors.toString());
+            return this;
+        }
+
+        public Node assertChildKeys(String... expected) {
+            check(childKeys.equals(Arrays.asList(expected)),
+                    "child keys", Arrays.toString(expected), childKeys.toString());
+            return this;
+        }
+
+        private void check(boolean ok, String what, String expected, String actual) {
+            if (!ok) {
+                throw new AssertionError("Unexpected " + what + " at '" + path +
+                        "', expected <" + expected + "> but was <" + actual + ">");
+            }
+        }
+    }
+
+    private final Map<String, Node> nodes;
+
+    private FSnapshot(Map<String, Node> nodes) {
+        this.nodes = Collections.unmodifiableMap(nodes);
+    }
+
+    @SuppressWarnings("unchecked")
+    static FSnapshot capture(WebDriver driver, WebElement formRoot) {
+        List<Map<String, Object>> raw = (List<Map<String, Object>>)
+                ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, formRoot);
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        for (Map<String, Object> r : raw) {
+            String path = (String) r.get("path");
+            Node node = new Node(
+                    path,
+                    (String) r.get("type"),
+                    (String) r.get("value"),
+                    Boolean.TRUE.equals(r.get("invalid")),
+                    (List<String>) r.get("errors"));
+            nodes.put(path, node);
+            if (!path.isEmpty()) {
+                int i = path.lastIndexOf('/');
+                Node parent = nodes.get(i == -1 ? "" : path.substring(0, i));
+                if (parent != null) {
+                    parent.childKeys.add(path.substring(i + 1));
+                }
+            }
+        }
+        return new FSnapshot(nodes);
+    }
+
+    public boolean has(JsPath path) {
+        return nodes.containsKey(path.format());
+    }
+
+    public Node at(JsPath path) {
+        Node node = nodes.get(path.format());
+        if (node == null) {
+            throw new AssertionError("No value at '" + path.format() + "', found " + nodes.keySet());
+        }
+        return node;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+}
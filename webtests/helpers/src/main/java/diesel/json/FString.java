@@ -1,6 +1,8 @@
 package diesel.json;
 
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
+import diesel.json.util.InputMode;
 import diesel.json.util.Utility;
 import org.openqa.selenium.Keys;
 
@@ -17,17 +19,20 @@ public class FString extends FJsonValue {
     }
 
     public FString assertValue(String expected) {
+        awaitIdle();
         findInput().where(attrEquals("value", expected)).eval();
         return this;
     }
 
     public FString assertNoError() {
+        awaitIdle();
         $$(".cds--form-requirement").count(0).eval();
         findInput().where(not(attrEquals("data-invalid", "true"))).eval();
         return this;
     }
 
     public FString assertError(String expectedError) {
+        awaitIdle();
         $$(".cds--form-requirement")
                 .where(textContains(expectedError))
                 .count(1)
@@ -37,6 +42,15 @@ public class FString extends FJsonValue {
     }
 
     public FString setValue(String value) {
+        return setValue(value, InputMode.current());
+    }
+
+    public FString setValue(String value, InputMode mode) {
+        Recorder.record("string.set", path, value, mode);
+        if (mode == InputMode.FAST) {
+            setInputValue(findInput(), value, true);
+            return this;
+        }
         // findInput().clear(); does not work everytime
         clear(findInput());
         findInput().sendKeys(value);
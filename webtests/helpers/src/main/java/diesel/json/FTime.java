@@ -1,6 +1,8 @@
 package diesel.json;
 
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
+import diesel.json.util.InputMode;
 
 import static com.pojosontheweb.selenium.Findrs.*;
 
@@ -14,15 +16,18 @@ public class FTime extends FJsonValue{
         super(path, findr);
     }
     public FTime assertValue(String expected) {
+        awaitIdle();
         findInput().where(attrEquals("value", expected)).eval();
         return this;
     }
     public FTime assertNoError() {
+        awaitIdle();
         $$(".cds--form-requirement").count(0).eval();
         findInput().where(not(attrEquals("data-invalid", "true"))).eval();
         return this;
     }
     public FTime assertHasError(String expectedError){
+        awaitIdle();
         $$(".cds--form-requirement")
                 .at(0)
                 .where(textEquals(expectedError)).eval();
@@ -30,6 +35,15 @@ public class FTime extends FJsonValue{
     }
 
     public FTime setValue(String value) {
+        return setValue(value, InputMode.current());
+    }
+
+    public FTime setValue(String value, InputMode mode) {
+        Recorder.record("time.set", path, value, mode);
+        if (mode == InputMode.FAST) {
+            setInputValue(findInput(), value, false);
+            return this;
+        }
         findInput().clear();
         findInput().sendKeys(value);
         return this;
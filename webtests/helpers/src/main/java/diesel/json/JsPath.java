@@ -1,40 +1,151 @@
 package diesel.json;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
+// immutable, paths share their parent : append is O(1)
 public class JsPath {
 
-    private final List<String> elems;
+    private static final String[] INDEXES = new String[256];
 
-    private JsPath(List<String> elems) {
-        this.elems = elems;
+    static {
+        for (int i = 0; i < INDEXES.length; i++) {
+            INDEXES[i] = Integer.toString(i).intern();
+        }
     }
 
-    public static JsPath empty = new JsPath(Collections.emptyList());
+    private final JsPath parent;
+    private final String elem;
+    private final int depth;
+    private final int hash;
+
+    // formats are computed on first use
+    private String slashFormat;
+    private String idFormat;
+
+    private JsPath(JsPath parent, String elem) {
+        this.parent = parent;
+        this.elem = elem;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.hash = parent == null ? 1 : 31 * parent.hash + elem.hashCode();
+    }
+
+    public static final JsPath empty = new JsPath(null, null);
 
     public JsPath append(String elem) {
-        ArrayList<String> newElems = new ArrayList<>(this.elems);
-        newElems.add(elem);
-        return new JsPath(newElems);
+        return new JsPath(this, elem.intern());
     }
 
     public JsPath append(int index) {
-        return append(Integer.toString(index));
+        return new JsPath(this, index >= 0 && index < INDEXES.length
+                ? INDEXES[index]
+                : Integer.toString(index).intern());
+    }
+
+    // the reverse of format(), e.g. "customer/orders/0"
+    public static JsPath parse(String path) {
+        JsPath res = empty;
+        if (!path.isEmpty()) {
+            for (String elem : path.split("/", -1)) {
+                res = res.append(elem);
+            }
+        }
+        return res;
+    }
+
+    public Optional<JsPath> parent() {
+        return Optional.ofNullable(parent);
+    }
+
+    // e.g. "0" for "customer/orders/0", empty for the root path
+    public Optional<String> last() {
+        return Optional.ofNullable(elem);
+    }
+
+    public int depth() {
+        return depth;
     }
 
     public String format() {
-        return format("/");
+        String s = slashFormat;
+        if (s == null) {
+            s = join("/");
+            slashFormat = s;
+        }
+        return s;
     }
 
     public String format(String separator) {
-        return String.join(separator, this.elems);
+        if ("/".equals(separator)) {
+            return format();
+        }
+        if ("_".equals(separator)) {
+            String s = idFormat;
+            if (s == null) {
+                s = join("_");
+                idFormat = s;
+            }
+            return s;
+        }
+        return join(separator);
+    }
+
+    private String join(String separator) {
+        if (depth == 0) {
+            return "";
+        }
+        String[] elems = new String[depth];
+        int len = (depth - 1) * separator.length();
+        JsPath p = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            elems[i] = p.elem;
+            len += p.elem.length();
+            p = p.parent;
+        }
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < elems.length; i++) {
+            if (i > 0) {
+                sb.append(separator);
+            }
+            sb.append(elems[i]);
+        }
+        return sb.toString();
     }
 
     public boolean isEmpty() {
-        return this.elems.isEmpty();
+        return depth == 0;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JsPath)) {
+            return false;
+        }
+        JsPath a = this;
+        JsPath b = (JsPath) o;
+        if (a.depth != b.depth || a.hash != b.hash) {
+            return false;
+        }
+        // elems are interned, stop at the first shared ancestor
+        while (a != b) {
+            if (a.elem != b.elem) {
+                return false;
+            }
+            a = a.parent;
+            b = b.parent;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
 }
@@ -0,0 +1,105 @@
+package diesel.json;
+
+import diesel.json.util.JsonDocs;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// calls to the window.__dieselTest library (diesel-test.js), installed on first use in a page
+class PageQueries {
+
+    private static final String LIBRARY = JsonDocs.readResource("/diesel/json/diesel-test.js");
+
+    private static final String CALL_SCRIPT =
+            "var t = window.__dieselTest;\n" +
+            "if (!t) {\n" +
+            "  return {missing: true};\n" +
+            "}\n" +
+            "return {result: t[arguments[0]].apply(null, arguments[1])};";
+
+    @SuppressWarnings("unchecked")
+    static Object call(JavascriptExecutor js, String function, Object... args) {
+        List<Object> argList = Arrays.asList(args);
+        Map<String, Object> res = (Map<String, Object>) js.executeScript(CALL_SCRIPT, function, argList);
+        if (Boolean.TRUE.equals(res.get("missing"))) {
+            js.executeScript(LIBRARY);
+            res = (Map<String, Object>) js.executeScript(CALL_SCRIPT, function, argList);
+        }
+        return res.get("result");
+    }
+
+    static Object call(SearchContext context, String function, Object... args) {
+        return call(executor(context), function, args);
+    }
+
+    private static JavascriptExecutor executor(SearchContext context) {
+        if (context instanceof WebElement && context instanceof WrapsDriver) {
+            return (JavascriptExecutor) ((WrapsDriver) context).getWrappedDriver();
+        }
+        return (JavascriptExecutor) context;
+    }
+
+    // a locator backed by a library function returning elements, searching under the context element
+    static By by(String function, Object... args) {
+        return new By() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<WebElement> findElements(SearchContext context) {
+                Object[] fullArgs = new Object[args.length + 1];
+                fullArgs[0] = context instanceof WebElement ? context : null;
+                System.arraycopy(args, 0, fullArgs, 1, args.length);
+                Object res = call(context, function, fullArgs);
+                return res == null ? Collections.emptyList() : new ArrayList<>((List<WebElement>) res);
+            }
+
+            @Override
+            public String toString() {
+                return "PageQueries." + function + Arrays.toString(args);
+            }
+        };
+    }
+
+    // the elements found by the locator, under the single element matching the css selector
+    static By within(String cssSelector, By by) {
+        return new By() {
+            @Override
+            public List<WebElement> findElements(SearchContext context) {
+                List<WebElement> roots = context.findElements(By.cssSelector(cssSelector));
+                return roots.size() == 1 ? roots.get(0).findElements(by) : Collections.emptyList();
+            }
+
+            @Override
+            public String toString() {
+                return cssSelector + " " + by;
+            }
+        };
+    }
+
+    static By valueNode(JsPath path) {
+        return by("valueNode", path.format());
+    }
+
+    static By propRow(String name) {
+        return by("propRow", name);
+    }
+
+    static By addPropButton(String name) {
+        return by("addPropButton", name);
+    }
+
+    static By arrayElems() {
+        return by("arrayElems");
+    }
+
+    static By menuItem(int menuIndex, String itemText) {
+        return by("menuItem", menuIndex, itemText);
+    }
+}
@@ -0,0 +1,138 @@
+package diesel.json.driver;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// collects the browser console while the test runs, and fails the next command with a
+// BrowserErrorException on an uncaught error (unless webtests.console.failFast=false)
+public class BrowserConsole {
+
+    private static final Logger logger = Logger.getLogger(BrowserConsole.class.getName());
+
+    public static final String SYSPROP_POLL_MS = "webtests.console.pollMs";
+    public static final String SYSPROP_BUFFER_SIZE = "webtests.console.bufferSize";
+    public static final String SYSPROP_FAIL_FAST = "webtests.console.failFast";
+
+    private static final Map<WebDriver, BrowserConsole> consoles = new IdentityHashMap<>();
+
+    private final WebDriver driver;
+    private final long pollNanos = Long.getLong(SYSPROP_POLL_MS, 250) * 1_000_000;
+    private final int bufferSize = Integer.getInteger(SYSPROP_BUFFER_SIZE, 1000);
+    private final boolean failFast = Boolean.parseBoolean(System.getProperty(SYSPROP_FAIL_FAST, "true"));
+    private final Deque<LogEntry> buffer = new ArrayDeque<>();
+    private long lastPoll;
+    private boolean polling;
+
+    private BrowserConsole(WebDriver driver) {
+        this.driver = driver;
+        this.lastPoll = System.nanoTime();
+    }
+
+    public static WebDriver watch(WebDriver driver) {
+        BrowserConsole console = new BrowserConsole(driver);
+        WebDriver[] watched = new WebDriver[1];
+        watched[0] = DriverProxy.wrap(driver, (command, invocation) -> {
+            if (command.equals("quit")) {
+                forget(watched[0]);
+            } else {
+                console.pollIfDue();
+            }
+            return invocation.proceed();
+        });
+        synchronized (consoles) {
+            consoles.put(watched[0], console);
+        }
+        return watched[0];
+    }
+
+    // the console entries collected so far (buffer cleared)
+    public static List<LogEntry> drain(WebDriver driver) {
+        BrowserConsole console = find(driver);
+        if (console == null) {
+            return DriverProxy.untracked(() -> driver.manage().logs().get(LogType.BROWSER).getAll());
+        }
+        return console.drain();
+    }
+
+    private static void forget(WebDriver driver) {
+        synchronized (consoles) {
+            consoles.remove(driver);
+        }
+    }
+
+    private static BrowserConsole find(WebDriver driver) {
+        WebDriver d = driver;
+        while (d != null) {
+            synchronized (consoles) {
+                BrowserConsole console = consoles.get(d);
+                if (console != null) {
+                    return console;
+                }
+            }
+            d = d instanceof WrapsDriver ? ((WrapsDriver) d).getWrappedDriver() : null;
+        }
+        return null;
+    }
+
+    private synchronized void pollIfDue() {
+        if (polling || System.nanoTime() - lastPoll < pollNanos) {
+            return;
+        }
+        LogEntry error = poll();
+        if (error != null && failFast) {
+            throw new BrowserErrorException(error);
+        }
+    }
+
+    // fetches the new entries, returns the first uncaught error if any
+    private LogEntry poll() {
+        polling = true;
+        LogEntry error = null;
+        try {
+            for (LogEntry entry : DriverProxy.untracked(() -> driver.manage().logs().get(LogType.BROWSER))) {
+                if (error == null && isUncaught(entry)) {
+                    error = entry;
+                }
+                buffer.addLast(entry);
+                if (buffer.size() > bufferSize) {
+                    buffer.removeFirst();
+                }
+            }
+        } catch (WebDriverException e) {
+            logger.log(Level.FINE, "Unable to fetch the browser logs", e);
+        } finally {
+            lastPoll = System.nanoTime();
+            polling = false;
+        }
+        return error;
+    }
+
+    private static boolean isUncaught(LogEntry entry) {
+        return entry.getLevel().intValue() >= Level.SEVERE.intValue()
+                && entry.getMessage() != null
+                && entry.getMessage().contains("Uncaught");
+    }
+
+    private synchronized List<LogEntry> drain() {
+        poll();
+        if (buffer.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<LogEntry> res = new ArrayList<>(buffer);
+        buffer.clear();
+        return res;
+    }
+}
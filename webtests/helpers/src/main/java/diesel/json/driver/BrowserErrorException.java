@@ -0,0 +1,18 @@
+package diesel.json.driver;
+
+import org.openqa.selenium.logging.LogEntry;
+
+// not a WebDriverException, so that the pending waits fail right away instead of ignoring it
+public class BrowserErrorException extends RuntimeException {
+
+    private final LogEntry entry;
+
+    public BrowserErrorException(LogEntry entry) {
+        super("Uncaught browser error : " + entry);
+        this.entry = entry;
+    }
+
+    public LogEntry getEntry() {
+        return entry;
+    }
+}
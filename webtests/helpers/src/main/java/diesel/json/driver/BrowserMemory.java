@@ -0,0 +1,187 @@
+package diesel.json.driver;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// memory of the page and of its worker, measured through DevTools after a forced garbage collection
+public class BrowserMemory {
+
+    private static final Json JSON = new Json();
+
+    private static final long WORKER_TIMEOUT_SECONDS = 30;
+
+    // worker sessions and pending commands of a DevTools connection, the listeners
+    // are registered once by connection
+    private static class WorkerRelay {
+        private final AtomicInteger ids = new AtomicInteger();
+        private final Map<Integer, CompletableFuture<Map<String, Object>>> pending = new ConcurrentHashMap<>();
+        private volatile CompletableFuture<String> workerSession = new CompletableFuture<>();
+
+        @SuppressWarnings("unchecked")
+        WorkerRelay(DevTools devTools) {
+            devTools.addListener(
+                    new Event<Map<String, Object>>("Target.attachedToTarget", input -> input.read(Json.MAP_TYPE)),
+                    params -> {
+                        Map<String, Object> info = (Map<String, Object>) params.get("targetInfo");
+                        if (info != null && "worker".equals(info.get("type"))) {
+                            workerSession.complete((String) params.get("sessionId"));
+                        }
+                    });
+            devTools.addListener(
+                    new Event<Map<String, Object>>("Target.receivedMessageFromTarget", input -> input.read(Json.MAP_TYPE)),
+                    params -> {
+                        Map<String, Object> message = JSON.toType((String) params.get("message"), Json.MAP_TYPE);
+                        Object id = message.get("id");
+                        if (id instanceof Number) {
+                            CompletableFuture<Map<String, Object>> f = pending.remove(((Number) id).intValue());
+                            if (f != null) {
+                                f.complete(message);
+                            }
+                        }
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> send(DevTools devTools, String sessionId, String method) {
+            int id = ids.incrementAndGet();
+            CompletableFuture<Map<String, Object>> response = new CompletableFuture<>();
+            pending.put(id, response);
+            Map<String, Object> message = new HashMap<>();
+            message.put("id", id);
+            message.put("method", method);
+            message.put("params", Collections.emptyMap());
+            Map<String, Object> params = new HashMap<>();
+            params.put("sessionId", sessionId);
+            params.put("message", JSON.toJson(message));
+            devTools.send(new Command<Void>("Target.sendMessageToTarget", params));
+            Map<String, Object> res = await(response, method);
+            if (res.containsKey("error")) {
+                throw new IllegalStateException(method + " failed in the worker : " + res.get("error"));
+            }
+            return (Map<String, Object>) res.get("result");
+        }
+    }
+
+    private static final Map<DevTools, WorkerRelay> relays = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static <T> T await(CompletableFuture<T> future, String what) {
+        try {
+            return future.get(WORKER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + what, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("No answer from the worker for " + what, e);
+        }
+    }
+
+    public static class Snapshot {
+        private final long jsHeapUsed;
+        private final long domNodes;
+        private final long jsEventListeners;
+
+        Snapshot(long jsHeapUsed, long domNodes, long jsEventListeners) {
+            this.jsHeapUsed = jsHeapUsed;
+            this.domNodes = domNodes;
+            this.jsEventListeners = jsEventListeners;
+        }
+
+        public long getJsHeapUsed() {
+            return jsHeapUsed;
+        }
+
+        public long getDomNodes() {
+            return domNodes;
+        }
+
+        public long getJsEventListeners() {
+            return jsEventListeners;
+        }
+
+        @Override
+        public String toString() {
+            return "heap " + jsHeapUsed + " bytes, " + domNodes + " nodes, " + jsEventListeners + " listeners";
+        }
+    }
+
+    public static boolean isSupported(WebDriver driver) {
+        return driver instanceof HasCdp;
+    }
+
+    public static Snapshot measure(WebDriver driver) {
+        if (!isSupported(driver)) {
+            throw new UnsupportedOperationException("No DevTools access on " + driver);
+        }
+        HasCdp cdp = (HasCdp) driver;
+        return DriverProxy.untracked(() -> {
+            cdp.executeCdpCommand("HeapProfiler.enable", Collections.emptyMap());
+            cdp.executeCdpCommand("HeapProfiler.collectGarbage", Collections.emptyMap());
+            Map<String, Object> heap = cdp.executeCdpCommand("Runtime.getHeapUsage", Collections.emptyMap());
+            Map<String, Object> counters = cdp.executeCdpCommand("Memory.getDOMCounters", Collections.emptyMap());
+            return new Snapshot(
+                    ((Number) heap.get("usedSize")).longValue(),
+                    ((Number) counters.get("nodes")).longValue(),
+                    ((Number) counters.get("jsEventListeners")).longValue());
+        });
+    }
+
+    public static boolean isWorkerSupported(WebDriver driver) {
+        return driver instanceof HasDevTools;
+    }
+
+    // used heap of the page's worker, in a DevTools session attached to it through the page's
+    // session. UnsupportedOperationException without DevTools access or worker
+    public static long measureWorker(WebDriver driver) {
+        if (!isWorkerSupported(driver)) {
+            throw new UnsupportedOperationException("No DevTools access on " + driver);
+        }
+        return DriverProxy.untracked(() -> {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            WorkerRelay relay = relays.computeIfAbsent(devTools, WorkerRelay::new);
+            relay.workerSession = new CompletableFuture<>();
+            Map<String, Object> autoAttach = new HashMap<>();
+            autoAttach.put("autoAttach", true);
+            autoAttach.put("waitForDebuggerOnStart", false);
+            autoAttach.put("flatten", false);
+            devTools.send(new Command<Void>("Target.setAutoAttach", autoAttach));
+            String sessionId;
+            try {
+                sessionId = relay.workerSession.get(WORKER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while attaching to the worker", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new UnsupportedOperationException("No worker target attached to the page in "
+                        + WORKER_TIMEOUT_SECONDS + "s", e);
+            }
+            try {
+                relay.send(devTools, sessionId, "HeapProfiler.enable");
+                relay.send(devTools, sessionId, "HeapProfiler.collectGarbage");
+                Map<String, Object> heap = relay.send(devTools, sessionId, "Runtime.getHeapUsage");
+                return ((Number) heap.get("usedSize")).longValue();
+            } finally {
+                devTools.send(new Command<Void>("Target.detachFromTarget",
+                        Collections.singletonMap("sessionId", sessionId)));
+                autoAttach.put("autoAttach", false);
+                devTools.send(new Command<Void>("Target.setAutoAttach", autoAttach));
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package diesel.json.driver;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.CapabilityType;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+
+// the chrome drivers of the webtests, configured by the webtests.chrome.* system properties
+// (profile, headless, diskCacheDir, logLevel, pageLoadStrategy, trace)
+public class ChromeDriverFactory {
+
+    public static final String SYSPROP_PROFILE = "webtests.chrome.profile";
+    public static final String SYSPROP_HEADLESS = "webtests.chrome.headless";
+    public static final String SYSPROP_DISK_CACHE_DIR = "webtests.chrome.diskCacheDir";
+    public static final String SYSPROP_LOG_LEVEL = "webtests.chrome.logLevel";
+    public static final String SYSPROP_PAGE_LOAD_STRATEGY = "webtests.chrome.pageLoadStrategy";
+    public static final String SYSPROP_TRACE = "webtests.chrome.trace";
+
+    // timeline, user timing and V8 sampling, for the page and its workers
+    private static final String TRACE_CATEGORIES = String.join(",",
+            "toplevel",
+            "blink.user_timing",
+            "devtools.timeline",
+            "v8.execute",
+            "disabled-by-default-devtools.timeline",
+            "disabled-by-default-devtools.timeline.frame",
+            "disabled-by-default-v8.cpu_profiler");
+
+    public enum Profile {
+        // headed unless headless
+        DEFAULT,
+        // headless, no gpu nor extensions, shared disk cache, less logging
+        THROUGHPUT
+    }
+
+    private final Profile profile;
+    private final boolean headless;
+    private final String diskCacheDir;
+    private final Level logLevel;
+    private final PageLoadStrategy pageLoadStrategy;
+    private final boolean trace;
+
+    public ChromeDriverFactory(Profile profile, boolean headless, String diskCacheDir, Level logLevel,
+                               PageLoadStrategy pageLoadStrategy) {
+        this(profile, headless, diskCacheDir, logLevel, pageLoadStrategy, false);
+    }
+
+    public ChromeDriverFactory(Profile profile, boolean headless, String diskCacheDir, Level logLevel,
+                               PageLoadStrategy pageLoadStrategy, boolean trace) {
+        this.profile = profile;
+        this.headless = headless;
+        this.diskCacheDir = diskCacheDir;
+        this.logLevel = logLevel;
+        this.pageLoadStrategy = pageLoadStrategy;
+        this.trace = trace;
+    }
+
+    public static ChromeDriverFactory fromSystemProperties() {
+        Profile profile = Profile.valueOf(System.getProperty(SYSPROP_PROFILE, "default").toUpperCase(Locale.ROOT));
+        boolean throughput = profile == Profile.THROUGHPUT;
+        String headless = System.getProperty(SYSPROP_HEADLESS);
+        String diskCacheDir = System.getProperty(SYSPROP_DISK_CACHE_DIR);
+        if (diskCacheDir == null && throughput) {
+            diskCacheDir = new File(System.getProperty("java.io.tmpdir"), "webtests-chrome-cache").getAbsolutePath();
+        }
+        String pageLoadStrategy = System.getProperty(SYSPROP_PAGE_LOAD_STRATEGY, "normal");
+        return new ChromeDriverFactory(
+                profile,
+                headless == null ? throughput : Boolean.parseBoolean(headless),
+                diskCacheDir,
+                Level.parse(System.getProperty(SYSPROP_LOG_LEVEL, throughput ? "WARNING" : "ALL")),
+                PageLoadStrategy.fromString(pageLoadStrategy),
+                Boolean.getBoolean(SYSPROP_TRACE));
+    }
+
+    public ChromeOptions options(String lng) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--ignore-certificate-errors");
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        if (profile == Profile.THROUGHPUT) {
+            options.addArguments(
+                    "--disable-gpu",
+                    "--disable-extensions",
+                    "--disable-dev-shm-usage",
+                    "--disable-background-networking",
+                    "--disable-default-apps",
+                    "--disable-sync",
+                    "--no-first-run",
+                    "--mute-audio");
+        }
+        if (diskCacheDir != null) {
+            options.addArguments("--disk-cache-dir=" + diskCacheDir);
+        }
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("intl.accept_languages", lng);
+        options.setExperimentalOption("prefs", prefs);
+        LoggingPreferences loggingPrefs = new LoggingPreferences();
+        loggingPrefs.enable(LogType.BROWSER, logLevel);
+        if (trace) {
+            loggingPrefs.enable(LogType.PERFORMANCE, Level.ALL);
+            Map<String, Object> perfPrefs = new HashMap<>();
+            perfPrefs.put("enableNetwork", false);
+            perfPrefs.put("enablePage", false);
+            perfPrefs.put("traceCategories", TRACE_CATEGORIES);
+            options.setExperimentalOption("perfLoggingPrefs", perfPrefs);
+        }
+        options.setCapability(CapabilityType.LOGGING_PREFS, loggingPrefs);
+        options.setCapability("goog:loggingPrefs", loggingPrefs);
+        options.setPageLoadStrategy(pageLoadStrategy);
+        return options;
+    }
+
+    public boolean isTrace() {
+        return trace;
+    }
+
+    public WebDriver create(String lng) {
+        WebDriver d = new ChromeDriver(options(lng));
+        d.manage().window().setSize(new Dimension(1920, 1200));
+        return d;
+    }
+}
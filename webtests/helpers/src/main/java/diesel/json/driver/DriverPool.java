@@ -0,0 +1,226 @@
+package diesel.json.driver;
+
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// browser sessions shared by the tests running in parallel. Pooled drivers ignore quit() : the
+// session goes back to the pool at the end of the test (see leaseRule), or is discarded if it failed
+public class DriverPool {
+
+    private static final Logger logger = Logger.getLogger(DriverPool.class.getName());
+
+    public static final String SYSPROP_POOL_SIZE = "webtests.pool.size";
+
+    private static DriverPool instance;
+
+    public static boolean isEnabled() {
+        return Integer.getInteger(SYSPROP_POOL_SIZE, 0) > 0;
+    }
+
+    public static synchronized DriverPool get() {
+        if (instance == null) {
+            instance = new DriverPool(Integer.getInteger(SYSPROP_POOL_SIZE, 1));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown));
+        }
+        return instance;
+    }
+
+    private static class Lease {
+        final String key;
+        final WebDriver driver;
+        final WebDriver pooled;
+        boolean failed = false;
+
+        Lease(String key, WebDriver driver, WebDriver pooled) {
+            this.key = key;
+            this.driver = driver;
+            this.pooled = pooled;
+        }
+    }
+
+    private final int size;
+    private final Semaphore permits;
+    private final Map<String, Deque<Lease>> idle = new HashMap<>();
+    private final Set<WebDriver> alive = new LinkedHashSet<>();
+    private final ThreadLocal<Lease> current = new ThreadLocal<>();
+
+    private DriverPool(int size) {
+        this.size = size;
+        this.permits = new Semaphore(size, true);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    // blocks until one of the sessions is available, drivers are only reused for the same key
+    public WebDriver acquire(String key, Supplier<WebDriver> factory) {
+        if (current.get() != null) {
+            throw new IllegalStateException("A pooled driver is already leased by this thread");
+        }
+        permits.acquireUninterruptibly();
+        try {
+            Lease lease = pollIdle(key);
+            if (lease == null) {
+                WebDriver driver = factory.get();
+                synchronized (this) {
+                    alive.add(driver);
+                }
+                lease = new Lease(key, driver, decorate(driver));
+            }
+            current.set(lease);
+            return lease.pooled;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private synchronized Lease pollIdle(String key) {
+        Deque<Lease> leases = idle.get(key);
+        if (leases != null && !leases.isEmpty()) {
+            return leases.pop();
+        }
+        // keep at most size browsers alive : evict an idle session of another key
+        if (alive.size() >= size) {
+            for (Deque<Lease> others : idle.values()) {
+                Lease evicted = others.pollLast();
+                if (evicted != null) {
+                    quitQuietly(evicted.driver);
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    public void releaseCurrent() {
+        Lease lease = current.get();
+        if (lease == null) {
+            return;
+        }
+        current.remove();
+        try {
+            if (lease.failed) {
+                quitQuietly(lease.driver);
+            } else {
+                synchronized (this) {
+                    idle.computeIfAbsent(lease.key, k -> new ArrayDeque<>()).push(lease);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void markCurrentFailed() {
+        Lease lease = current.get();
+        if (lease != null) {
+            lease.failed = true;
+        }
+    }
+
+    // rules wrap @After methods, so the driver is released once the test is completely done
+    public static TestWatcher leaseRule() {
+        return new TestWatcher() {
+            @Override
+            protected void failed(Throwable e, Description description) {
+                if (isEnabled()) {
+                    get().markCurrentFailed();
+                }
+            }
+
+            @Override
+            protected void finished(Description description) {
+                if (isEnabled()) {
+                    get().releaseCurrent();
+                }
+            }
+        };
+    }
+
+    public void shutdown() {
+        List<WebDriver> drivers;
+        synchronized (this) {
+            drivers = new ArrayList<>(alive);
+            idle.clear();
+        }
+        drivers.forEach(this::quitQuietly);
+    }
+
+    private void quitQuietly(WebDriver driver) {
+        synchronized (this) {
+            if (!alive.remove(driver)) {
+                return;
+            }
+        }
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to quit pooled driver", e);
+        }
+    }
+
+    private static WebDriver decorate(WebDriver driver) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = driver.getClass(); c != null; c = c.getSuperclass()) {
+            collectInterfaces(c, interfaces);
+        }
+        interfaces.add(WrapsDriver.class);
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "quit":
+                    // the session is released by the lease rule
+                    return null;
+                case "getWrappedDriver":
+                    return driver;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invoke(driver, method, args);
+            }
+        };
+        return (WebDriver) Proxy.newProxyInstance(
+                DriverPool.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[0]),
+                handler);
+    }
+
+    static void collectInterfaces(Class<?> c, Set<Class<?>> into) {
+        for (Class<?> i : c.getInterfaces()) {
+            if (Modifier.isPublic(i.getModifiers()) && into.add(i)) {
+                collectInterfaces(i, into);
+            }
+        }
+    }
+
+    static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package diesel.json.driver;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// decorates a driver, and everything it hands out (elements, manage()...), with an interceptor
+// called around each command sent to the browser
+class DriverProxy {
+
+    interface Invocation {
+        Object proceed() throws Throwable;
+    }
+
+    interface Interceptor {
+        Object intercept(String command, Invocation invocation) throws Throwable;
+    }
+
+    // methods answered by the client, without a request to the driver
+    private static final Set<String> LOCAL_METHODS = new HashSet<>(Arrays.asList(
+            "getWrappedDriver", "getWrappedElement", "getId", "getSessionId", "getCapabilities",
+            "getCommandExecutor", "getErrorHandler", "getFileDetector", "setFileDetector",
+            "manage", "navigate", "switchTo", "timeouts", "window", "logs",
+            "equals", "hashCode", "toString"));
+
+    // set while the tooling itself (console polls, profiling, memory) talks to the driver
+    private static final ThreadLocal<Boolean> tooling = ThreadLocal.withInitial(() -> false);
+
+    // runs the commands of the tooling without the interceptors : they are neither
+    // counted as round trips, nor do they trigger console polls
+    static <T> T untracked(Supplier<T> commands) {
+        boolean previous = tooling.get();
+        tooling.set(true);
+        try {
+            return commands.get();
+        } finally {
+            tooling.set(previous);
+        }
+    }
+
+    static WebDriver wrap(WebDriver driver, Interceptor interceptor) {
+        Handler handler = new Handler(driver, null, interceptor);
+        WebDriver proxy = (WebDriver) proxy(driver, WrapsDriver.class, handler);
+        handler.driver = proxy;
+        return proxy;
+    }
+
+    private static Object proxy(Object target, Class<?> wrapperInterface, Handler handler) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = target.getClass(); c != null; c = c.getSuperclass()) {
+            DriverPool.collectInterfaces(c, interfaces);
+        }
+        if (wrapperInterface != null) {
+            interfaces.add(wrapperInterface);
+        }
+        return Proxy.newProxyInstance(
+                DriverProxy.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[0]),
+                handler);
+    }
+
+    private static class Handler implements InvocationHandler {
+
+        private final Object target;
+        private final Interceptor interceptor;
+        // the decorated driver, handed out instead of the real one by elements
+        private WebDriver driver;
+
+        Handler(Object target, WebDriver driver, Interceptor interceptor) {
+            this.target = target;
+            this.driver = driver;
+            this.interceptor = interceptor;
+        }
+
+        private Object wrap(Object o, Class<?> wrapperInterface) {
+            return proxy(o, wrapperInterface, new Handler(o, driver, interceptor));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getWrappedDriver")) {
+                return target instanceof WebDriver ? target : driver;
+            }
+            if (name.equals("getWrappedElement") && target instanceof WebElement) {
+                return target;
+            }
+            if (name.equals("equals")) {
+                return target.equals(unwrap(args[0]));
+            }
+            if (isCustomLookup(name, args)) {
+                // the driver calls custom locators (PageQueries, CachedNode) with the real driver or
+                // element, their scripts would not be intercepted : call them with this proxy instead
+                By by = (By) args[0];
+                return name.equals("findElements")
+                        ? by.findElements((SearchContext) proxy)
+                        : by.findElement((SearchContext) proxy);
+            }
+            Object[] unwrapped = unwrapArgs(args);
+            if (LOCAL_METHODS.contains(name) || tooling.get()) {
+                return wrapResult(method, DriverPool.invoke(target, method, unwrapped));
+            }
+            return interceptor.intercept(name, () -> wrapResult(method, DriverPool.invoke(target, method, unwrapped)));
+        }
+
+        private Object wrapResult(Method method, Object res) {
+            if (res == null) {
+                return null;
+            }
+            if (res instanceof WebElement) {
+                return wrap(res, WrapsElement.class);
+            }
+            if (res instanceof List) {
+                return ((List<?>) res).stream()
+                        .map(o -> o instanceof WebElement ? wrap(o, WrapsElement.class) : o)
+                        .collect(Collectors.toList());
+            }
+            // manage(), navigate(), switchTo()...
+            Class<?> type = method.getReturnType();
+            if (type.isInterface() && type.getName().startsWith("org.openqa.selenium.")) {
+                return wrap(res, null);
+            }
+            return res;
+        }
+    }
+
+    private static boolean isCustomLookup(String name, Object[] args) {
+        return (name.equals("findElements") || name.equals("findElement"))
+                && args != null && args.length == 1
+                && args[0] instanceof By && !(args[0] instanceof By.Remotable);
+    }
+
+    private static Object unwrap(Object o) {
+        if (o != null && Proxy.isProxyClass(o.getClass()) && Proxy.getInvocationHandler(o) instanceof Handler) {
+            return ((Handler) Proxy.getInvocationHandler(o)).target;
+        }
+        if (o instanceof Object[]) {
+            return unwrapArgs((Object[]) o);
+        }
+        if (o instanceof List) {
+            return ((List<?>) o).stream().map(DriverProxy::unwrap).collect(Collectors.toList());
+        }
+        return o;
+    }
+
+    private static Object[] unwrapArgs(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Object[] res = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            res[i] = unwrap(args[i]);
+        }
+        return res;
+    }
+}
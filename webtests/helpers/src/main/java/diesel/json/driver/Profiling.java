@@ -0,0 +1,117 @@
+package diesel.json.driver;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// saves a DevTools trace (page and worker) and a CPU profile of the tests slower than
+// webtests.trace.thresholdMs, for drivers created with webtests.chrome.trace
+public class Profiling {
+
+    private static final Logger logger = Logger.getLogger(Profiling.class.getName());
+
+    public static final String SYSPROP_THRESHOLD_MS = "webtests.trace.thresholdMs";
+
+    public static final String SYSPROP_DIR = "webtests.trace.dir";
+
+    private static final ThreadLocal<Long> started = new ThreadLocal<>();
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ChromeDriverFactory.SYSPROP_TRACE);
+    }
+
+    // starts recording, drops what has been recorded before (e.g. by a previous test on a pooled driver)
+    public static void start(WebDriver driver) {
+        if (!isEnabled()) {
+            return;
+        }
+        performanceLog(driver);
+        cdp(driver, "Profiler.enable", Collections.emptyMap());
+        cdp(driver, "Profiler.setSamplingInterval", Collections.singletonMap("interval", 200));
+        cdp(driver, "Profiler.start", Collections.emptyMap());
+        started.set(System.nanoTime());
+    }
+
+    // stops recording, and saves the trace and profile if the test has been slow
+    @SuppressWarnings("unchecked")
+    public static void stop(WebDriver driver, String testName) {
+        Long start = started.get();
+        if (start == null) {
+            return;
+        }
+        started.remove();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Object> profile = cdp(driver, "Profiler.stop", Collections.emptyMap());
+        List<Object> traceEvents = performanceLog(driver);
+        long threshold = Long.getLong(SYSPROP_THRESHOLD_MS, 5000);
+        if (elapsedMs < threshold) {
+            return;
+        }
+        Path dir = Paths.get(System.getProperty(SYSPROP_DIR, "target/traces"));
+        String fileName = testName.replaceAll("[^\\w.\\-]", "_");
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", traceEvents);
+        try {
+            Files.createDirectories(dir);
+            Json json = new Json();
+            Files.write(dir.resolve(fileName + ".trace.json"), json.toJson(trace).getBytes(StandardCharsets.UTF_8));
+            if (profile != null && profile.get("profile") != null) {
+                Files.write(dir.resolve(fileName + ".cpuprofile"),
+                        json.toJson(profile.get("profile")).getBytes(StandardCharsets.UTF_8));
+            }
+            logger.info(testName + " took " + elapsedMs + " ms (threshold " + threshold + " ms), trace saved to " + dir);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to write the trace of " + testName, new UncheckedIOException(e));
+        }
+    }
+
+    // the trace events collected by chromedriver since the last call
+    private static List<Object> performanceLog(WebDriver driver) {
+        List<Object> events = new ArrayList<>();
+        Json json = new Json();
+        try {
+            for (LogEntry entry : DriverProxy.untracked(() -> driver.manage().logs().get(LogType.PERFORMANCE))) {
+                Map<String, Object> message = json.toType(entry.getMessage(), Json.MAP_TYPE);
+                Object inner = message.get("message");
+                if (inner instanceof Map) {
+                    Map<?, ?> m = (Map<?, ?>) inner;
+                    if ("Tracing.dataCollected".equals(m.get("method"))) {
+                        events.add(m.get("params"));
+                    }
+                }
+            }
+        } catch (WebDriverException e) {
+            logger.log(Level.WARNING, "Unable to fetch the performance log", e);
+        }
+        return events;
+    }
+
+    private static Map<String, Object> cdp(WebDriver driver, String command, Map<String, Object> params) {
+        if (!(driver instanceof HasCdp)) {
+            return null;
+        }
+        try {
+            return DriverProxy.untracked(() -> ((HasCdp) driver).executeCdpCommand(command, params));
+        } catch (WebDriverException e) {
+            logger.log(Level.WARNING, "Unable to run " + command, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package diesel.json.driver;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// fails the tests that issue more commands, or spend more time in them, than declared (negative for no limit)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RoundTripBudget {
+
+    int commands() default -1;
+
+    long millis() default -1;
+}
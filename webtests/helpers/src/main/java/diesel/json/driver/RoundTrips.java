@@ -0,0 +1,319 @@
+package diesel.json.driver;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// counts and times the WebDriver commands of each test, by command and by page object method.
+// Reports are written to webtests.roundtrips.dir when the JVM exits
+public class RoundTrips {
+
+    private static final Logger logger = Logger.getLogger(RoundTrips.class.getName());
+
+    public static final String SYSPROP_ENABLED = "webtests.roundtrips.enabled";
+
+    public static final String SYSPROP_DIR = "webtests.roundtrips.dir";
+
+    private static final int SLOWEST = 10;
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(SYSPROP_ENABLED, "true"));
+    }
+
+    public static class Counter {
+        private int count;
+        private long nanos;
+        private long maxNanos;
+
+        void add(long n) {
+            count++;
+            nanos += n;
+            maxNanos = Math.max(maxNanos, n);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        public long getMaxMillis() {
+            return maxNanos / 1_000_000;
+        }
+    }
+
+    public static class Call {
+        private final String command;
+        private final String method;
+        private final long nanos;
+
+        Call(String command, String method, long nanos) {
+            this.command = command;
+            this.method = method;
+            this.nanos = nanos;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public long getMillis() {
+            return nanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%6d ms  %-20s %s", getMillis(), command, method);
+        }
+    }
+
+    public static class Stats {
+        private final Counter total = new Counter();
+        private final Map<String, Counter> byCommand = new TreeMap<>();
+        private final Map<String, Counter> byMethod = new TreeMap<>();
+        private final PriorityQueue<Call> slowest = new PriorityQueue<>(Comparator.comparingLong(c -> c.nanos));
+
+        void record(String command, String method, long nanos) {
+            total.add(nanos);
+            byCommand.computeIfAbsent(command, k -> new Counter()).add(nanos);
+            byMethod.computeIfAbsent(method, k -> new Counter()).add(nanos);
+            slowest.add(new Call(command, method, nanos));
+            if (slowest.size() > SLOWEST) {
+                slowest.poll();
+            }
+        }
+
+        void clear() {
+            total.count = 0;
+            total.nanos = 0;
+            total.maxNanos = 0;
+            byCommand.clear();
+            byMethod.clear();
+            slowest.clear();
+        }
+
+        public int getCommands() {
+            return total.count;
+        }
+
+        public long getMillis() {
+            return total.getMillis();
+        }
+
+        public Map<String, Counter> getByCommand() {
+            return byCommand;
+        }
+
+        public Map<String, Counter> getByMethod() {
+            return byMethod;
+        }
+
+        public List<Call> getSlowest() {
+            List<Call> calls = new ArrayList<>(slowest);
+            calls.sort(Comparator.comparingLong((Call c) -> c.nanos).reversed());
+            return calls;
+        }
+    }
+
+    private static final ThreadLocal<Stats> current = new ThreadLocal<>();
+
+    private static final Map<String, Stats> results = new LinkedHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RoundTrips::writeReports));
+    }
+
+    public static WebDriver instrument(WebDriver driver) {
+        if (!isEnabled()) {
+            return driver;
+        }
+        return DriverProxy.wrap(driver, (command, invocation) -> {
+            Stats stats = current.get();
+            if (stats == null) {
+                return invocation.proceed();
+            }
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                stats.record(command, pageObjectMethod(), System.nanoTime() - start);
+            }
+        });
+    }
+
+    // the stats of the running test, null outside of the rule
+    public static Stats current() {
+        return current.get();
+    }
+
+    // forget what has been counted so far, e.g. the page load done in a @Before
+    public static void restart() {
+        Stats stats = current.get();
+        if (stats != null) {
+            stats.clear();
+        }
+    }
+
+    public static TestRule rule() {
+        return (base, description) -> new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Stats stats = new Stats();
+                current.set(stats);
+                try {
+                    base.evaluate();
+                } finally {
+                    current.remove();
+                    synchronized (results) {
+                        results.put(description.getDisplayName(), stats);
+                    }
+                }
+                checkBudget(description, stats);
+            }
+        };
+    }
+
+    private static void checkBudget(Description description, Stats stats) {
+        RoundTripBudget budget = description.getAnnotation(RoundTripBudget.class);
+        if (budget == null && description.getTestClass() != null) {
+            budget = description.getTestClass().getAnnotation(RoundTripBudget.class);
+        }
+        if (budget == null) {
+            return;
+        }
+        String exceeded = null;
+        if (budget.commands() >= 0 && stats.getCommands() > budget.commands()) {
+            exceeded = stats.getCommands() + " commands, budget is " + budget.commands();
+        } else if (budget.millis() >= 0 && stats.getMillis() > budget.millis()) {
+            exceeded = stats.getMillis() + " ms in commands, budget is " + budget.millis();
+        }
+        if (exceeded != null) {
+            String methods = stats.getByMethod().entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Counter> e) -> e.getValue().count).reversed())
+                    .map(e -> String.format("  %5d  %6d ms  %s", e.getValue().count, e.getValue().getMillis(), e.getKey()))
+                    .collect(Collectors.joining("\n"));
+            throw new AssertionError("Round-trip budget exceeded for " + description.getDisplayName() +
+                    " : " + exceeded + "\n" + methods);
+        }
+    }
+
+    // the outermost page object method on the stack, e.g. FNumber.setValue
+    private static String pageObjectMethod() {
+        StackTraceElement[] stack = Thread.currentThread().getStackTrace();
+        for (int i = stack.length - 1; i >= 0; i--) {
+            String className = stack[i].getClassName();
+            if (className.startsWith("diesel.json.")
+                    && !className.startsWith("diesel.json.driver.")
+                    && !className.startsWith("diesel.json.util.")) {
+                String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                int inner = simpleName.indexOf('$');
+                if (inner != -1) {
+                    simpleName = simpleName.substring(0, inner);
+                }
+                String methodName = stack[i].getMethodName();
+                if (methodName.startsWith("lambda$")) {
+                    methodName = methodName.substring("lambda$".length());
+                    int end = methodName.indexOf('$');
+                    methodName = end == -1 ? methodName : methodName.substring(0, end);
+                }
+                return simpleName + "." + methodName;
+            }
+        }
+        return "(test)";
+    }
+
+    private static Map<String, Object> toJson(Map<String, Counter> counters) {
+        Map<String, Object> res = new LinkedHashMap<>();
+        counters.forEach((k, c) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", c.getCount());
+            m.put("millis", c.getMillis());
+            m.put("maxMillis", c.getMaxMillis());
+            res.put(k, m);
+        });
+        return res;
+    }
+
+    private static void writeReports() {
+        Map<String, Stats> all;
+        synchronized (results) {
+            if (results.isEmpty()) {
+                return;
+            }
+            all = new LinkedHashMap<>(results);
+        }
+        Path dir = Paths.get(System.getProperty(SYSPROP_DIR, "target/roundtrips"));
+        List<Object> json = new ArrayList<>();
+        StringBuilder csv = new StringBuilder("test,kind,name,count,millis,maxMillis\n");
+        List<Map.Entry<Call, String>> slowestCalls = new ArrayList<>();
+        all.forEach((test, stats) -> {
+            Map<String, Object> t = new LinkedHashMap<>();
+            t.put("test", test);
+            t.put("commands", stats.getCommands());
+            t.put("millis", stats.getMillis());
+            t.put("byCommand", toJson(stats.getByCommand()));
+            t.put("byMethod", toJson(stats.getByMethod()));
+            t.put("slowest", stats.getSlowest().stream().map(c -> {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("command", c.getCommand());
+                m.put("method", c.getMethod());
+                m.put("millis", c.getMillis());
+                return m;
+            }).collect(Collectors.toList()));
+            json.add(t);
+            appendCsv(csv, test, "command", stats.getByCommand());
+            appendCsv(csv, test, "method", stats.getByMethod());
+            stats.getSlowest().forEach(c -> slowestCalls.add(new AbstractMap.SimpleEntry<>(c, test)));
+        });
+        slowestCalls.sort(Comparator.comparingLong((Map.Entry<Call, String> e) -> e.getKey().nanos).reversed());
+        String summary = "Slowest WebDriver calls :\n" + slowestCalls.stream()
+                .limit(20)
+                .map(e -> e.getKey() + "  (" + e.getValue() + ")")
+                .collect(Collectors.joining("\n"));
+        try {
+            Files.createDirectories(dir);
+            Files.write(dir.resolve("roundtrips.json"), new Json().toJson(json).getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("roundtrips.csv"), csv.toString().getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("slowest.txt"), summary.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to write round-trip reports to " + dir, new UncheckedIOException(e));
+        }
+        logger.info(summary);
+    }
+
+    private static void appendCsv(StringBuilder csv, String test, String kind, Map<String, Counter> counters) {
+        String quotedTest = "\"" + test.replace("\"", "\"\"") + "\"";
+        counters.forEach((name, c) -> csv.append(quotedTest).append(',')
+                .append(kind).append(',')
+                .append(name).append(',')
+                .append(c.getCount()).append(',')
+                .append(c.getMillis()).append(',')
+                .append(c.getMaxMillis()).append('\n'));
+    }
+}
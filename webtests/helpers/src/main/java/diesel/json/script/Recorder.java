@@ -0,0 +1,43 @@
+package diesel.json.script;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// records the page object calls that change the page, for the current thread, between start() and
+// stop(). Menu clicks are recorded as the FActions they do
+public class Recorder {
+
+    private static final ThreadLocal<Recorder> current = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final List<Script.Step> steps = new ArrayList<>();
+
+    public static void start() {
+        current.set(new Recorder());
+    }
+
+    public static boolean isRecording() {
+        return current.get() != null;
+    }
+
+    // the steps recorded since start(), empty if not recording
+    public static Script stop() {
+        Recorder recorder = current.get();
+        current.remove();
+        return new Script(recorder == null ? new ArrayList<>() : recorder.steps);
+    }
+
+    // args are recorded with toString(), i.e. paths in their slash format
+    public static void record(String command, Object... args) {
+        Recorder recorder = current.get();
+        if (recorder == null) {
+            return;
+        }
+        List<String> strArgs = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            strArgs.add(String.valueOf(arg));
+        }
+        long offset = (System.nanoTime() - recorder.start) / 1_000_000;
+        recorder.steps.add(new Script.Step(offset, command, strArgs));
+    }
+}
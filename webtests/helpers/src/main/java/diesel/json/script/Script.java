@@ -0,0 +1,177 @@
+package diesel.json.script;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// a recorded session, stored as a "#webtests-script<tab>1" header then a line per step : offset in ms,
+// command and args, tab separated (tabs, line breaks and backslashes escaped), # for comments
+public class Script {
+
+    public static final String HEADER = "#webtests-script";
+
+    public static final int VERSION = 1;
+
+    public static class Step {
+        public final long offsetMillis;
+        public final String command;
+        public final List<String> args;
+
+        public Step(long offsetMillis, String command, List<String> args) {
+            this.offsetMillis = offsetMillis;
+            this.command = command;
+            this.args = Collections.unmodifiableList(new ArrayList<>(args));
+        }
+
+        public String arg(int index) {
+            if (index >= args.size()) {
+                throw new IllegalArgumentException("Missing argument " + index + " for " + this);
+            }
+            return args.get(index);
+        }
+
+        @Override
+        public String toString() {
+            return offsetMillis + "ms " + command + " " + args;
+        }
+    }
+
+    private final List<Step> steps;
+
+    public Script(List<Step> steps) {
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public long getDurationMillis() {
+        return steps.isEmpty() ? 0 : steps.get(steps.size() - 1).offsetMillis;
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder(HEADER).append('\t').append(VERSION).append('\n');
+        for (Step step : steps) {
+            sb.append(step.offsetMillis).append('\t').append(escape(step.command));
+            for (String arg : step.args) {
+                sb.append('\t').append(escape(arg));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void write(Path file) {
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            Files.write(file, format().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Script read(Path file) {
+        try {
+            return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Script parse(String text) {
+        String[] lines = text.split("\r?\n");
+        String[] header = lines[0].split("\t");
+        if (header.length != 2 || !HEADER.equals(header[0])) {
+            throw new IllegalArgumentException("Not a script, expected " + HEADER + " header : " + lines[0]);
+        }
+        if (!Integer.toString(VERSION).equals(header[1])) {
+            throw new IllegalArgumentException("Unsupported script version " + header[1] + ", expected " + VERSION);
+        }
+        List<Step> steps = new ArrayList<>();
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 2) {
+                throw new IllegalArgumentException("Line " + (i + 1) + " : expected offset and command : " + line);
+            }
+            long offset;
+            try {
+                offset = Long.parseLong(fields[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + " : invalid offset : " + fields[0]);
+            }
+            List<String> args = new ArrayList<>();
+            for (String field : Arrays.asList(fields).subList(2, fields.length)) {
+                args.add(unescape(field));
+            }
+            steps.add(new Step(offset, unescape(fields[1]), args));
+        }
+        return new Script(steps);
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') == -1) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                switch (next) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
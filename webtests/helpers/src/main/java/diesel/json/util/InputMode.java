@@ -0,0 +1,17 @@
+package diesel.json.util;
+
+import java.util.Locale;
+
+// how the page objects enter values : typed (KEYSTROKES), or set with their events in a single
+// script (FAST). Selected with webtests.input.mode, the tests of typing force KEYSTROKES
+public enum InputMode {
+
+    KEYSTROKES,
+    FAST;
+
+    public static final String SYSPROP_INPUT_MODE = "webtests.input.mode";
+
+    public static InputMode current() {
+        return valueOf(System.getProperty(SYSPROP_INPUT_MODE, "keystrokes").toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,92 @@
+package diesel.json.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+public class JsonDocs {
+
+    public static String readResource(String name) {
+        try (InputStream in = JsonDocs.class.getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Resource not found : " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a pretty-printed array containing count copies of the (pretty-printed) element
+    public static String arrayOf(String element, int count) {
+        String indented = "  " + element.trim().replace("\n", "\n  ");
+        StringBuilder sb = new StringBuilder(indented.length() * count + 4);
+        sb.append("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append(indented);
+        }
+        return sb.append("\n]").toString();
+    }
+
+    // an array of count {id, name, value} objects, one per line : 4 * count + 1 nodes
+    public static String itemsArray(int count) {
+        StringBuilder sb = new StringBuilder(count * 48 + 4);
+        sb.append("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append("  {\"id\": ").append(i)
+                    .append(", \"name\": \"item ").append(i)
+                    .append("\", \"value\": ").append(i).append(".5}");
+        }
+        return sb.append("\n]").toString();
+    }
+
+    // depth objects, each one nested in the previous one under childProp (in a single-element
+    // array if inArray). fields gives the other members of the object at a level, e.g. "\"name\": \"x\""
+    public static String nested(int depth, String childProp, boolean inArray, IntFunction<String> fields) {
+        StringBuilder sb = new StringBuilder();
+        appendNested(sb, 0, depth, childProp, inArray, fields, "");
+        return sb.toString();
+    }
+
+    private static void appendNested(StringBuilder sb, int level, int depth, String childProp, boolean inArray,
+                                     IntFunction<String> fields, String indent) {
+        String inner = indent + "  ";
+        sb.append("{\n").append(inner).append(fields.apply(level));
+        if (level + 1 < depth) {
+            sb.append(",\n").append(inner).append('"').append(childProp).append("\": ");
+            if (inArray) {
+                sb.append("[\n").append(inner).append("  ");
+                appendNested(sb, level + 1, depth, childProp, inArray, fields, inner + "  ");
+                sb.append('\n').append(inner).append(']');
+            } else {
+                appendNested(sb, level + 1, depth, childProp, inArray, fields, inner);
+            }
+        }
+        sb.append('\n').append(indent).append('}');
+    }
+
+    public static int lineCount(String text) {
+        int lines = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,104 @@
+package diesel.json.util;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+// latencies recorded by name into histograms (us, up to a minute), logged as percentiles in ms with
+// the added lines, and written as <prefix><name>.hgrm to the directory, if any. Thread safe
+public class LatencyReport {
+
+    private static final long MAX_MICROS = 60_000_000L;
+
+    private final String title;
+    private final Path dir;
+    private final String filePrefix;
+    private final Map<String, Histogram> histograms = new TreeMap<>();
+    private final List<String> lines = new ArrayList<>();
+
+    public LatencyReport(String title) {
+        this(title, null, "");
+    }
+
+    public LatencyReport(String title, Path dir, String filePrefix) {
+        this.title = title;
+        this.dir = dir;
+        this.filePrefix = filePrefix;
+    }
+
+    public synchronized void recordMicros(String name, long micros) {
+        histograms.computeIfAbsent(name, k -> new Histogram(MAX_MICROS, 3))
+                .recordValue(Math.max(0, Math.min(MAX_MICROS, micros)));
+    }
+
+    public void recordNanos(String name, long nanos) {
+        recordMicros(name, nanos / 1000);
+    }
+
+    public void recordMillis(String name, double millis) {
+        recordMicros(name, Math.round(millis * 1000));
+    }
+
+    public synchronized void addLine(String line) {
+        lines.add(line);
+    }
+
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder("\n").append(title);
+        if (!histograms.isEmpty()) {
+            int width = Math.max(4, histograms.keySet().stream().mapToInt(String::length).max().orElse(0));
+            String row = "%n%-" + width + "s %7s %8s %8s %8s %8s";
+            sb.append(String.format(row, "(ms)", "count", "p50", "p90", "p99", "max"));
+            for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+                Histogram h = e.getValue();
+                sb.append(String.format("%n%-" + width + "s %7d %8.1f %8.1f %8.1f %8.1f",
+                        e.getKey(),
+                        h.getTotalCount(),
+                        h.getValueAtPercentile(50) / 1000.0,
+                        h.getValueAtPercentile(90) / 1000.0,
+                        h.getValueAtPercentile(99) / 1000.0,
+                        h.getMaxValue() / 1000.0));
+            }
+        }
+        for (String line : lines) {
+            sb.append('\n').append(line);
+        }
+        return sb.toString();
+    }
+
+    // the distributions, in ms
+    public synchronized void writeDistributions() throws IOException {
+        if (dir == null || histograms.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(dir);
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            Path file = dir.resolve(filePrefix + fileName(e.getKey()) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, "UTF-8")) {
+                e.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]+", "-").replaceAll("^-+|-+$", "");
+    }
+
+    public void log(Logger logger) {
+        try {
+            writeDistributions();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the distributions to " + dir, e);
+        }
+        logger.info(summary());
+    }
+}
@@ -0,0 +1,58 @@
+package diesel.json.util;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.WebDriver;
+
+// waits for the form to be idle (no validation in flight, no pending debounce, no DOM change for
+// a short while) through the sandbox hooks, so that the assertions pass on their first evaluation
+public class RenderSync {
+
+    public static final String SYSPROP_ENABLED = "webtests.sync.enabled";
+
+    public static final String SYSPROP_QUIET_MS = "webtests.sync.quietMs";
+
+    // well below the Findr timeout : a form that never settles only delays the assertion
+    public static final String SYSPROP_TIMEOUT_MS = "webtests.sync.timeoutMs";
+
+    private static final String AWAIT_IDLE_SCRIPT =
+            "var done = arguments[arguments.length - 1];\n" +
+            "var hooks = window.sandboxHooks;\n" +
+            "if (!hooks) {\n" +
+            "  done(false);\n" +
+            "  return;\n" +
+            "}\n" +
+            "hooks.whenIdle(arguments[0], arguments[1]).then(\n" +
+            "  function(idle) { done(idle && (hooks.generation ? hooks.generation() : true)); },\n" +
+            "  function() { done(false); });";
+
+    private static final String GENERATION_SCRIPT =
+            "var hooks = window.sandboxHooks;\n" +
+            "return hooks && hooks.generation ? hooks.generation() : -1;";
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(SYSPROP_ENABLED, "true"));
+    }
+
+    public static boolean awaitIdle(WebDriver driver) {
+        if (!isEnabled()) {
+            return false;
+        }
+        try {
+            Object res = ((JavascriptExecutor) driver)
+                    .executeAsyncScript(AWAIT_IDLE_SCRIPT,
+                            Integer.getInteger(SYSPROP_QUIET_MS, 50), Integer.getInteger(SYSPROP_TIMEOUT_MS, 5000));
+            return res instanceof Number || Boolean.TRUE.equals(res);
+        } catch (ScriptTimeoutException e) {
+            // let the regular Findr timeout report the failure
+            return false;
+        }
+    }
+
+    // the current render generation of the form, changes when nodes are added,
+    // removed or moved to another path. -1 if unknown.
+    public static long generation(JavascriptExecutor js) {
+        Object res = js.executeScript(GENERATION_SCRIPT);
+        return res instanceof Number ? ((Number) res).longValue() : -1L;
+    }
+}
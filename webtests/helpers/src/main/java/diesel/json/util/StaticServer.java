@@ -0,0 +1,413 @@
+package diesel.json.util;
+
+import org.junit.rules.ExternalResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// serves a directory on an ephemeral loopback port as mvn jetty:run in the webapp does (precompressed
+// variants, etags, immutable /assets/), from a single NIO thread. Starts in a few ms
+public class StaticServer {
+
+    private static final Logger logger = Logger.getLogger(StaticServer.class.getName());
+
+    private static final int MAX_REQUEST_HEAD = 16 * 1024;
+
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("js", "application/javascript; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json; charset=utf-8");
+        CONTENT_TYPES.put("map", "application/json; charset=utf-8");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("ttf", "font/ttf");
+    }
+
+    private static class CachedFile {
+        final long size;
+        final long lastModified;
+        final String etag;
+        final ByteBuffer content;
+
+        CachedFile(long size, long lastModified, ByteBuffer content) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            this.content = content;
+        }
+    }
+
+    private static class Connection {
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        ByteBuffer[] out;
+        boolean close;
+    }
+
+    private final Path root;
+    private final boolean plain;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Thread thread;
+    private final Map<Path, CachedFile> files = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private StaticServer(Path root, boolean plain) throws IOException {
+        this.root = root;
+        this.plain = plain;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 128);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::loop, "static-server-" + getPort());
+        thread.setDaemon(true);
+    }
+
+    public static StaticServer start(Path root) {
+        return start(root, false);
+    }
+
+    // plain : no precompressed variants, etags or caching, to measure what they save
+    public static StaticServer start(Path root, boolean plain) {
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("Not a directory : " + root);
+        }
+        try {
+            StaticServer server = new StaticServer(root.toAbsolutePath().normalize(), plain);
+            server.thread.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a server for the tests of a class (@ClassRule) or a single test (@Rule)
+    public static Rule rule(Path root) {
+        return new Rule(root);
+    }
+
+    public static class Rule extends ExternalResource {
+
+        private final Path root;
+        private StaticServer server;
+
+        Rule(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        protected void before() {
+            server = start(root);
+        }
+
+        @Override
+        protected void after() {
+            server.stop();
+            server = null;
+        }
+
+        public String getBaseUrl() {
+            if (server == null) {
+                throw new IllegalStateException("Server not started");
+            }
+            return server.getBaseUrl();
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            write(key);
+                        }
+                    } catch (IOException e) {
+                        // client gone
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Static server stopped", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // ignored
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Connection c = (Connection) key.attachment();
+        if (!c.in.hasRemaining()) {
+            if (c.in.capacity() >= MAX_REQUEST_HEAD) {
+                close(key);
+                return;
+            }
+            ByteBuffer bigger = ByteBuffer.allocate(c.in.capacity() * 2);
+            c.in.flip();
+            bigger.put(c.in);
+            c.in = bigger;
+        }
+        if (((SocketChannel) key.channel()).read(c.in) < 0) {
+            close(key);
+            return;
+        }
+        handleRequests(key, c);
+    }
+
+    // handles the request buffered in the connection, if complete
+    private void handleRequests(SelectionKey key, Connection c) throws IOException {
+        int end = headEnd(c.in);
+        if (end == -1) {
+            key.interestOps(SelectionKey.OP_READ);
+            return;
+        }
+        String head = new String(c.in.array(), 0, end, StandardCharsets.ISO_8859_1);
+        // keep what follows (pipelined requests)
+        c.in.flip();
+        c.in.position(end + 4);
+        c.in.compact();
+        respond(c, head);
+        key.interestOps(SelectionKey.OP_WRITE);
+        write(key);
+    }
+
+    private static int headEnd(ByteBuffer in) {
+        byte[] a = in.array();
+        for (int i = 0; i + 3 < in.position(); i++) {
+            if (a[i] == '\r' && a[i + 1] == '\n' && a[i + 2] == '\r' && a[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Connection c = (Connection) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        channel.write(c.out);
+        for (ByteBuffer b : c.out) {
+            if (b.hasRemaining()) {
+                // socket buffer full, wait for OP_WRITE
+                return;
+            }
+        }
+        c.out = null;
+        if (c.close) {
+            close(key);
+        } else {
+            handleRequests(key, c);
+        }
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // ignored
+        }
+    }
+
+    private void respond(Connection c, String head) {
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon + 1).trim());
+            }
+        }
+        boolean http10 = requestLine.length > 2 && requestLine[2].equals("HTTP/1.0");
+        String connection = headers.getOrDefault("connection", "");
+        c.close = http10 ? !connection.equalsIgnoreCase("keep-alive") : connection.equalsIgnoreCase("close");
+
+        if (requestLine.length < 3) {
+            c.close = true;
+            c.out = response(400, "Bad Request", new StringBuilder(), null, false);
+            return;
+        }
+        String method = requestLine[0];
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            c.out = response(405, "Method Not Allowed", new StringBuilder(), null, false);
+            return;
+        }
+        String requestPath = requestLine[1];
+        int query = requestPath.indexOf('?');
+        if (query != -1) {
+            requestPath = requestPath.substring(0, query);
+        }
+        Path file;
+        try {
+            file = resolve(URLDecoder.decode(requestPath, "UTF-8"));
+        } catch (IOException | IllegalArgumentException e) {
+            file = null;
+        }
+        if (file == null) {
+            c.out = response(404, "Not Found", new StringBuilder(), null, false);
+            return;
+        }
+        StringBuilder h = new StringBuilder();
+        String name = file.getFileName().toString();
+        String ext = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        h.append("Content-Type: ").append(CONTENT_TYPES.getOrDefault(ext, "application/octet-stream")).append("\r\n");
+        if (plain) {
+            h.append("Cache-Control: no-store\r\n");
+            CachedFile body = load(file);
+            c.out = body == null
+                    ? response(404, "Not Found", new StringBuilder(), null, false)
+                    : response(200, "OK", h, body, method.equals("HEAD"));
+            return;
+        }
+        h.append("Cache-Control: ").append(requestPath.startsWith("/assets/")
+                ? "public, max-age=31536000, immutable"
+                : "no-cache").append("\r\n");
+        h.append("Vary: Accept-Encoding\r\n");
+
+        CachedFile body = null;
+        String accept = headers.get("accept-encoding");
+        if (accept != null) {
+            if (accept.contains("br") && (body = load(sibling(file, ".br"))) != null) {
+                h.append("Content-Encoding: br\r\n");
+            } else if (accept.contains("gzip") && (body = load(sibling(file, ".gz"))) != null) {
+                h.append("Content-Encoding: gzip\r\n");
+            }
+        }
+        if (body == null) {
+            body = load(file);
+        }
+        if (body == null) {
+            c.out = response(404, "Not Found", new StringBuilder(), null, false);
+            return;
+        }
+        h.append("ETag: ").append(body.etag).append("\r\n");
+        if (body.etag.equals(headers.get("if-none-match"))) {
+            c.out = response(304, "Not Modified", h, null, false);
+            return;
+        }
+        c.out = response(200, "OK", h, body, method.equals("HEAD"));
+    }
+
+    private static ByteBuffer[] response(int status, String reason, StringBuilder headers, CachedFile body, boolean headOnly) {
+        long length = body == null ? 0 : body.size;
+        String head = "HTTP/1.1 " + status + " " + reason + "\r\n" +
+                headers +
+                (status == 304 ? "" : "Content-Length: " + length + "\r\n") +
+                "\r\n";
+        ByteBuffer headBuffer = ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1));
+        if (body == null || headOnly) {
+            return new ByteBuffer[]{headBuffer};
+        }
+        // each response reads the shared content through its own position
+        return new ByteBuffer[]{headBuffer, body.content.duplicate()};
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    // the file for the request path, null if outside the root or missing
+    private Path resolve(String requestPath) {
+        Path file = root.resolve(requestPath.replaceFirst("^/+", "")).normalize();
+        if (!file.startsWith(root)) {
+            return null;
+        }
+        if (Files.isDirectory(file)) {
+            file = file.resolve("index.html");
+        }
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    // the content of the file, read again when it has changed on disk. null if missing. Not
+    // memory-mapped : a mapping fails with SIGBUS when a build rewrites the file
+    private CachedFile load(Path file) {
+        try {
+            if (!Files.isRegularFile(file)) {
+                files.remove(file);
+                return null;
+            }
+            long size = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+            CachedFile cached = files.get(file);
+            if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+                return cached;
+            }
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file)).asReadOnlyBuffer();
+            cached = new CachedFile(content.remaining(), lastModified, content);
+            files.put(file, cached);
+            return cached;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to read " + file, e);
+            return null;
+        }
+    }
+}
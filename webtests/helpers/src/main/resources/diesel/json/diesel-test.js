@@ -0,0 +1,84 @@
+// Lookups used by the page objects (see PageQueries.java), installed once per
+// page as window.__dieselTest. Each function takes the search root (an element,
+// or null for the document) and returns exactly the data the helper needs.
+(function () {
+  function text(e) {
+    return (e.innerText || e.textContent || '').trim();
+  }
+
+  function children(e, cls) {
+    return Array.prototype.filter.call(e.children, function (c) {
+      return c.classList.contains(cls);
+    });
+  }
+
+  function propName(row) {
+    var nameRow = children(row, 'prop-name-row')[0];
+    var name = nameRow && children(nameRow, 'prop-name')[0];
+    return name ? text(name) : null;
+  }
+
+  function propRows(obj) {
+    return children(obj, 'object-prop');
+  }
+
+  function addPropButtons(obj) {
+    var res = [];
+    Array.prototype.forEach.call(obj.children, function (d) {
+      children(d, 'add-prop-row').forEach(function (r) {
+        Array.prototype.forEach.call(r.children, function (b) {
+          if (b.tagName === 'BUTTON') {
+            res.push(b);
+          }
+        });
+      });
+    });
+    return res;
+  }
+
+  window.__dieselTest = {
+    valueNode: function (root, path) {
+      return Array.prototype.slice.call(
+        (root || document).querySelectorAll(
+          'div.value[data-path="' + CSS.escape(path) + '"]',
+        ),
+      );
+    },
+    propNames: function (obj) {
+      return propRows(obj).map(propName);
+    },
+    propRow: function (obj, name) {
+      return propRows(obj).filter(function (r) {
+        return propName(r) === name;
+      });
+    },
+    addPropButtonNames: function (obj) {
+      return addPropButtons(obj).map(text);
+    },
+    addPropButton: function (obj, name) {
+      return addPropButtons(obj).filter(function (b) {
+        return text(b) === name;
+      });
+    },
+    arrayElems: function (arr) {
+      return children(arr, 'array-elem');
+    },
+    arrayLength: function (arr) {
+      return children(arr, 'array-elem').length;
+    },
+    menuItem: function (root, menuIndex, itemText) {
+      var menu = (root || document).querySelectorAll(
+        '.diesel-json-editor-menu .tm',
+      )[menuIndex];
+      if (!menu) {
+        return [];
+      }
+      return Array.prototype.filter.call(
+        menu.querySelectorAll('.menu-item span'),
+        function (s) {
+          return text(s) === itemText;
+        },
+      );
+    },
+  };
+})();
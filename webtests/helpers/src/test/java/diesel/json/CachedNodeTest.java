@@ -0,0 +1,92 @@
+package diesel.json;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CachedNodeTest {
+
+    private long generation = 1;
+    private final List<String> calls = new ArrayList<>();
+    private int lookups;
+    private WebDriver driver;
+    private WebElement valueNode;
+
+    // the page : a render generation, and the diesel-test library answering 3 to every call
+    @Before
+    public void fakePage() {
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("executeScript")) {
+                        return null;
+                    }
+                    String script = (String) args[0];
+                    if (script.contains("__dieselTest")) {
+                        Object[] scriptArgs = (Object[]) args[1];
+                        calls.add((String) scriptArgs[0]);
+                        return Collections.singletonMap("result", 3L);
+                    }
+                    return generation;
+                });
+        valueNode = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebElement.class, WrapsDriver.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWrappedDriver":
+                            return driver;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return 0;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private CachedNode node() {
+        return new CachedNode(new By() {
+            @Override
+            public List<WebElement> findElements(SearchContext context) {
+                lookups++;
+                return Collections.singletonList(valueNode);
+            }
+        });
+    }
+
+    @Test
+    public void pageQueryOnCachedNode() {
+        WebElement handle = node().findElements(driver).get(0);
+        assertTrue(handle instanceof WrapsElement);
+        assertSame(valueNode, ((WrapsElement) handle).getWrappedElement());
+        assertEquals(3L, PageQueries.call(handle, "arrayLength", handle));
+        assertEquals(Collections.singletonList("arrayLength"), calls);
+    }
+
+    @Test
+    public void reusedUntilTheGenerationChanges() {
+        CachedNode node = node();
+        WebElement first = node.findElements(driver).get(0);
+        assertSame(first, node.findElements(driver).get(0));
+        assertEquals(1, lookups);
+        generation++;
+        node.findElements(driver);
+        assertEquals(2, lookups);
+    }
+}
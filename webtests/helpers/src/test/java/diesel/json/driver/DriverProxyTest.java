@@ -0,0 +1,80 @@
+package diesel.json.driver;
+
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DriverProxyTest {
+
+    // answers scripts with an empty list, and calls custom locators with itself, as RemoteWebDriver does
+    private static WebDriver fakeDriver(List<String> sent) {
+        Object[] self = new Object[1];
+        self[0] = Proxy.newProxyInstance(DriverProxyTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findElements":
+                            if (!(args[0] instanceof By.Remotable)) {
+                                return ((By) args[0]).findElements((SearchContext) self[0]);
+                            }
+                            sent.add("findElements");
+                            return Collections.emptyList();
+                        case "executeScript":
+                            sent.add("executeScript");
+                            return Collections.emptyList();
+                        case "hashCode":
+                            return 0;
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            return null;
+                    }
+                });
+        return (WebDriver) self[0];
+    }
+
+    @Test
+    public void customLocatorScriptsAreIntercepted() {
+        List<String> sent = new ArrayList<>();
+        List<String> intercepted = new ArrayList<>();
+        WebDriver driver = DriverProxy.wrap(fakeDriver(sent), (command, invocation) -> {
+            intercepted.add(command);
+            return invocation.proceed();
+        });
+        By twoScripts = new By() {
+            @Override
+            public List<WebElement> findElements(SearchContext context) {
+                ((JavascriptExecutor) context).executeScript("return 1;");
+                context.findElements(By.cssSelector(".value"));
+                ((JavascriptExecutor) context).executeScript("return 2;");
+                return Collections.emptyList();
+            }
+        };
+        driver.findElements(twoScripts);
+        assertEquals(Arrays.asList("executeScript", "findElements", "executeScript"), sent);
+        assertEquals(sent, intercepted);
+    }
+
+    @Test
+    public void remotableLocatorsAreOneCommand() {
+        List<String> sent = new ArrayList<>();
+        List<String> intercepted = new ArrayList<>();
+        WebDriver driver = DriverProxy.wrap(fakeDriver(sent), (command, invocation) -> {
+            intercepted.add(command);
+            return invocation.proceed();
+        });
+        driver.findElements(By.cssSelector(".value"));
+        assertEquals(Collections.singletonList("findElements"), intercepted);
+    }
+}
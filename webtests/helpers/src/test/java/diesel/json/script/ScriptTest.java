@@ -0,0 +1,79 @@
+package diesel.json.script;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ScriptTest {
+
+    private static Script.Step step(long offset, String command, String... args) {
+        return new Script.Step(offset, command, Arrays.asList(args));
+    }
+
+    private static void assertSameSteps(Script expected, Script actual) {
+        assertEquals(expected.getSteps().size(), actual.getSteps().size());
+        for (int i = 0; i < expected.getSteps().size(); i++) {
+            Script.Step e = expected.getSteps().get(i);
+            Script.Step a = actual.getSteps().get(i);
+            assertEquals(e.offsetMillis, a.offsetMillis);
+            assertEquals(e.command, a.command);
+            assertEquals(e.args, a.args);
+        }
+    }
+
+    private static void assertInvalid(String text, String messagePart) {
+        try {
+            Script.parse(text);
+            fail("Expected an IllegalArgumentException for " + text);
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(messagePart));
+        }
+    }
+
+    @Test
+    public void formatWithHeader() {
+        Script script = new Script(Arrays.asList(
+                step(0, "sample", "BeanContainingOtherBean"),
+                step(412, "add-prop-button", "", "customer")));
+        assertEquals("#webtests-script\t1\n" +
+                "0\tsample\tBeanContainingOtherBean\n" +
+                "412\tadd-prop-button\t\tcustomer\n", script.format());
+        assertEquals(412, script.getDurationMillis());
+    }
+
+    @Test
+    public void escapedArgs() {
+        Script script = new Script(Arrays.asList(
+                step(0, "editor.set", "editor2", "{\n\t\"a\": \"b\\\\n\"\r\n}"),
+                step(10, "string.set", "a", "", "KEYSTROKES"),
+                step(20, "editor.type", "editor2", "\\", "\t")));
+        String text = script.format();
+        // one line per step, after the header
+        assertEquals(4, text.split("\n").length);
+        assertSameSteps(script, Script.parse(text));
+    }
+
+    @Test
+    public void commentsAndBlankLinesIgnored() {
+        Script script = Script.parse("#webtests-script\t1\r\n" +
+                "\n" +
+                "# a comment\n" +
+                "5\tdelete\tfoo/0\n" +
+                "   \n");
+        assertSameSteps(new Script(Collections.singletonList(step(5, "delete", "foo/0"))), script);
+    }
+
+    @Test
+    public void invalidScripts() {
+        assertInvalid("0\tsample\tLong\n", "header");
+        assertInvalid("#webtests-script\n", "header");
+        assertInvalid("#webtests-script\t2\n", "version 2");
+        assertInvalid("#webtests-script\t1\nsample\n", "Line 2");
+        assertInvalid("#webtests-script\t1\nsoon\tsample\n", "invalid offset");
+    }
+}
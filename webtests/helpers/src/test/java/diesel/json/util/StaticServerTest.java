@@ -0,0 +1,218 @@
+package diesel.json.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+public class StaticServerTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path root;
+    private StaticServer server;
+
+    private static class Response {
+        final int status;
+        final Map<String, String> headers;
+        final byte[] body;
+
+        Response(int status, Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        String text() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Before
+    public void startServer() throws IOException {
+        root = tmp.newFolder("root").toPath();
+        Files.write(root.resolve("index.html"), "<html>index</html>".getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("a.txt"), "aaa".getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("b.txt"), "bbbbbb".getBytes(StandardCharsets.UTF_8));
+        Files.write(tmp.getRoot().toPath().resolve("secret.txt"), "secret".getBytes(StandardCharsets.UTF_8));
+        server = StaticServer.start(root);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setSoTimeout(10_000);
+        return socket;
+    }
+
+    private static String get(String path, String... headers) {
+        StringBuilder sb = new StringBuilder("GET ").append(path).append(" HTTP/1.1\r\nHost: localhost\r\n");
+        for (String h : headers) {
+            sb.append(h).append("\r\n");
+        }
+        return sb.append("\r\n").toString();
+    }
+
+    private static void send(Socket socket, String requests) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(requests.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static Response readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b == -1) {
+                throw new IOException("Connection closed in the response head");
+            }
+            head.write(b);
+            matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+        String[] lines = head.toString("ISO-8859-1").split("\r\n");
+        int status = Integer.parseInt(lines[0].split(" ")[1]);
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon + 1).trim());
+        }
+        byte[] body = new byte[Integer.parseInt(headers.getOrDefault("content-length", "0"))];
+        new DataInputStream(in).readFully(body);
+        return new Response(status, headers, body);
+    }
+
+    private Response request(String path, String... headers) throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, get(path, headers));
+            return readResponse(socket.getInputStream());
+        }
+    }
+
+    @Test
+    public void servesFilesAndIndex() throws IOException {
+        Response a = request("/a.txt");
+        assertEquals(200, a.status);
+        assertEquals("aaa", a.text());
+        assertEquals("no-cache", a.headers.get("cache-control"));
+        Response index = request("/");
+        assertEquals(200, index.status);
+        assertEquals("<html>index</html>", index.text());
+        assertEquals("text/html; charset=utf-8", index.headers.get("content-type"));
+        assertEquals(404, request("/missing.txt").status);
+    }
+
+    @Test
+    public void notModifiedWithEtag() throws IOException {
+        Response first = request("/a.txt");
+        String etag = first.headers.get("etag");
+        assertNotNull(etag);
+        Response second = request("/a.txt", "If-None-Match: " + etag);
+        assertEquals(304, second.status);
+        assertEquals(0, second.body.length);
+        assertFalse(second.headers.containsKey("content-length"));
+        assertEquals(200, request("/a.txt", "If-None-Match: \"other\"").status);
+    }
+
+    @Test
+    public void pipelinedRequests() throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, get("/a.txt") + get("/b.txt") + get("/missing.txt") + get("/a.txt"));
+            InputStream in = socket.getInputStream();
+            assertEquals("aaa", readResponse(in).text());
+            assertEquals("bbbbbb", readResponse(in).text());
+            assertEquals(404, readResponse(in).status);
+            assertEquals("aaa", readResponse(in).text());
+        }
+    }
+
+    @Test
+    public void largeFileToSlowClient() throws Exception {
+        // far more than the socket buffers, the server has to resume its writes
+        byte[] content = new byte[8 * 1024 * 1024];
+        new Random(42).nextBytes(content);
+        Files.write(root.resolve("big.bin"), content);
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4096);
+            socket.setSoTimeout(10_000);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+            send(socket, get("/big.bin") + get("/a.txt"));
+            Thread.sleep(200);
+            InputStream in = socket.getInputStream();
+            Response big = readResponse(in);
+            assertEquals(200, big.status);
+            assertArrayEquals(content, big.body);
+            // the connection is still usable after the partial writes
+            assertEquals("aaa", readResponse(in).text());
+        }
+    }
+
+    @Test
+    public void precompressedVariant() throws IOException {
+        Files.write(root.resolve("a.txt.gz"), "gzipped".getBytes(StandardCharsets.UTF_8));
+        Response gz = request("/a.txt", "Accept-Encoding: gzip, deflate");
+        assertEquals("gzip", gz.headers.get("content-encoding"));
+        assertEquals("gzipped", gz.text());
+        assertEquals("aaa", request("/a.txt").text());
+    }
+
+    @Test
+    public void plainServer() throws IOException {
+        Files.write(root.resolve("a.txt.gz"), "gzipped".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(root.resolve("assets"));
+        Files.write(root.resolve("assets/c.js"), "ccc".getBytes(StandardCharsets.UTF_8));
+        server.stop();
+        server = StaticServer.start(root, true);
+        Response a = request("/a.txt", "Accept-Encoding: br, gzip");
+        assertEquals(200, a.status);
+        assertEquals("aaa", a.text());
+        assertFalse(a.headers.containsKey("content-encoding"));
+        assertFalse(a.headers.containsKey("etag"));
+        assertEquals("no-store", a.headers.get("cache-control"));
+        assertEquals("no-store", request("/assets/c.js").headers.get("cache-control"));
+        assertEquals(200, request("/a.txt", "If-None-Match: *").status);
+        assertEquals(404, request("/missing.txt").status);
+    }
+
+    @Test
+    public void noPathTraversal() throws IOException {
+        assertEquals(404, request("/../secret.txt").status);
+        assertEquals(404, request("/%2e%2e/secret.txt").status);
+        assertEquals(404, request("/..%2fsecret.txt").status);
+        assertEquals(404, request("/a/../../secret.txt").status);
+    }
+
+    @Test
+    public void reloadsChangedFiles() throws IOException {
+        assertEquals("aaa", request("/a.txt").text());
+        Files.write(root.resolve("a.txt"), "changed".getBytes(StandardCharsets.UTF_8));
+        assertEquals("changed", request("/a.txt").text());
+    }
+}
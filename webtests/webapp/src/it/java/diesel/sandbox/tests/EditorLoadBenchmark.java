@@ -0,0 +1,55 @@
+package diesel.sandbox.tests;
+
+import diesel.json.FEditor;
+import diesel.json.JsPath;
+import diesel.json.util.JsonDocs;
+import org.junit.Test;
+import org.openqa.selenium.JavascriptExecutor;
+
+import static org.junit.Assert.assertEquals;
+
+// run with mvn verify -Pperf
+public class EditorLoadBenchmark extends SandboxTestBase {
+
+    private static final String BIG_SAMPLE = JsonDocs.readResource("/big_sample.json").trim();
+
+    private long editorLength(String id) {
+        return ((Number) ((JavascriptExecutor) getWebDriver())
+                .executeScript("return window." + id + ".getValue().length;"))
+                .longValue();
+    }
+
+    private long timeMs(Runnable r) {
+        long start = System.nanoTime();
+        r.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @Test
+    public void bigSampleTypeTextVsBulk() {
+        FEditor editor = sandbox.jsonEditor;
+        int lines = JsonDocs.lineCount(BIG_SAMPLE);
+
+        long typed = timeMs(() -> editor.focus().clearText().typeText(BIG_SAMPLE));
+        // typeText appends a newline after each line
+        assertEquals(BIG_SAMPLE.length() + 1, editorLength("editor2"));
+
+        long bulk = timeMs(() -> editor.clearText().setTextBulk(BIG_SAMPLE));
+        assertEquals(BIG_SAMPLE.length(), editorLength("editor2"));
+
+        logger.info(String.format("big_sample.json (%d lines) : typeText %d ms, setTextBulk %d ms",
+                lines, typed, bulk));
+    }
+
+    @Test
+    public void bulkLoadGeneratedDocuments() {
+        for (int copies : new int[]{1, 20, 100}) {
+            String doc = JsonDocs.arrayOf(BIG_SAMPLE, copies);
+            long loaded = timeMs(() -> sandbox.jsonEditor.setTextBulk(doc));
+            assertEquals(doc.length(), editorLength("editor2"));
+            long rendered = timeMs(() -> sandbox.jsonForm.arrayAt(JsPath.empty).assertLength(copies));
+            logger.info(String.format("%d copies (%d lines, %d chars) : loaded in %d ms, rendered %d ms later",
+                    copies, JsonDocs.lineCount(doc), doc.length(), loaded, rendered));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package diesel.sandbox.tests;
+
+import diesel.json.FJsonValue;
+import diesel.json.JsPath;
+import diesel.json.util.JsonDocs;
+import diesel.json.util.LatencyReport;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.openqa.selenium.JavascriptExecutor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.fail;
+
+// run with mvn verify -Pperf, the summary is logged at the end
+public class LargeDocumentStress extends SandboxTestBase {
+
+    private static final long TIMEOUT_MS = TimeUnit.SECONDS.toMillis(Long.getLong("webtests.stress.timeout", 300));
+
+    private static final String ITEMS_SCHEMA = "{\n" +
+            "  \"type\": \"array\",\n" +
+            "  \"items\": {\n" +
+            "    \"type\": \"object\",\n" +
+            "    \"properties\": {\n" +
+            "      \"id\": { \"type\": \"integer\" },\n" +
+            "      \"name\": { \"type\": \"string\" },\n" +
+            "      \"value\": { \"type\": \"number\" }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}";
+
+    private static final String RECURSIVE_SCHEMA = "{\n" +
+            "  \"type\": \"object\",\n" +
+            "  \"properties\": {\n" +
+            "    \"level\": { \"type\": \"integer\" },\n" +
+            "    \"children\": {\n" +
+            "      \"type\": \"array\",\n" +
+            "      \"items\": { \"$ref\": \"#\" }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}";
+
+    private static final String POLYMORPHIC_SCHEMA = "{\n" +
+            "  \"type\": \"object\",\n" +
+            "  \"properties\": {\n" +
+            "    \"kind\": { \"enum\": [\"branch\", \"leaf\"] },\n" +
+            "    \"level\": { \"type\": \"integer\" }\n" +
+            "  },\n" +
+            "  \"allOf\": [\n" +
+            "    {\n" +
+            "      \"if\": { \"properties\": { \"kind\": { \"const\": \"branch\" } } },\n" +
+            "      \"then\": { \"properties\": { \"children\": { \"type\": \"array\", \"items\": { \"$ref\": \"#\" } } } }\n" +
+            "    },\n" +
+            "    {\n" +
+            "      \"if\": { \"properties\": { \"kind\": { \"const\": \"leaf\" } } },\n" +
+            "      \"then\": { \"properties\": { \"weight\": { \"type\": \"number\" } } }\n" +
+            "    }\n" +
+            "  ]\n" +
+            "}";
+
+    private static final LatencyReport report = new LatencyReport("Large documents");
+
+    @AfterClass
+    public static void logSummary() {
+        report.log(logger);
+    }
+
+    // polls the script until it returns true, returns the elapsed time
+    private long awaitScript(String what, String script, Object... args) {
+        long start = System.nanoTime();
+        JavascriptExecutor js = (JavascriptExecutor) getWebDriver();
+        while (!Boolean.TRUE.equals(js.executeScript(script, args))) {
+            if ((System.nanoTime() - start) / 1_000_000 > TIMEOUT_MS) {
+                fail(what + " : not done after " + TIMEOUT_MS + " ms");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private long awaitFormValue(String what, JsPath path, String expected) {
+        return awaitScript(what + " rendered",
+                "var n = document.querySelector('#json-form div.value[data-path=\"' + arguments[0] + '\"] input');\n" +
+                "return !!n && n.value === arguments[1];",
+                path.format(), expected);
+    }
+
+    private long awaitEditorValue(String what, JsPath path, String expected) {
+        return awaitScript(what + " in editor2",
+                "try {\n" +
+                "  var v = JSON.parse(window.editor2.getValue());\n" +
+                "  arguments[0].forEach(function(k) { v = v[k]; });\n" +
+                "  return '' + v === arguments[1];\n" +
+                "} catch (e) {\n" +
+                "  return false;\n" +
+                "}",
+                path.isEmpty() ? Collections.emptyList() : Arrays.asList(path.format().split("/")), expected);
+    }
+
+    // sets the value in the page, same as InputMode.FAST, once the input is rendered
+    private long setFormValue(String what, JsPath path, String value) {
+        return awaitScript(what + " edited",
+                "var n = document.querySelector('#json-form div.value[data-path=\"' + arguments[0] + '\"] input');\n" +
+                "if (!n) {\n" +
+                "  return false;\n" +
+                "}\n" +
+                "return (function() {\n" + FJsonValue.SET_VALUE_SCRIPT + "\n}).apply(null, [n, arguments[1], false]);",
+                path.format(), value);
+    }
+
+    private void loadAndEdit(String what, String schema, String doc, JsPath numberPath, String initial) {
+        sandbox.schemaEditor.setTextBulk(schema);
+        long start = System.nanoTime();
+        sandbox.jsonEditor.setTextBulk(doc);
+        long loaded = (System.nanoTime() - start) / 1_000_000;
+        long rendered = awaitFormValue(what, numberPath, initial);
+
+        // all in the page, bounded by the stress timeout and not by the Findr one
+        long edited = setFormValue(what, numberPath, "42");
+        edited += awaitFormValue(what, numberPath, "42");
+        long roundTrip = edited + awaitEditorValue(what, numberPath, "42");
+
+        String line = String.format("%-28s %9d chars : loaded %6d ms, rendered %6d ms later, edit %6d ms, in editor2 after %6d ms",
+                what, doc.length(), loaded, rendered, edited, roundTrip);
+        logger.info(line);
+        report.addLine(line);
+    }
+
+    private void flat(int nodes) {
+        int count = (nodes - 1) / 4;
+        loadAndEdit(nodes + " nodes",
+                ITEMS_SCHEMA,
+                JsonDocs.itemsArray(count),
+                JsPath.empty.append(count - 1).append("value"),
+                (count - 1) + ".5");
+    }
+
+    @Test
+    public void flat1k() {
+        flat(1_000);
+    }
+
+    @Test
+    public void flat10k() {
+        flat(10_000);
+    }
+
+    @Test
+    public void flat100k() {
+        flat(100_000);
+    }
+
+    private void recursive(int depth) {
+        JsPath deepest = JsPath.empty;
+        for (int i = 1; i < depth; i++) {
+            deepest = deepest.append("children").append(0);
+        }
+        loadAndEdit("recursive, depth " + depth,
+                RECURSIVE_SCHEMA,
+                JsonDocs.nested(depth, "children", true, level -> "\"level\": " + level),
+                deepest.append("level"),
+                Integer.toString(depth - 1));
+    }
+
+    @Test
+    public void recursive10() {
+        recursive(10);
+    }
+
+    @Test
+    public void recursive50() {
+        recursive(50);
+    }
+
+    @Test
+    public void recursive200() {
+        recursive(200);
+    }
+
+    private void polymorphic(int depth) {
+        JsPath deepest = JsPath.empty;
+        for (int i = 1; i < depth; i++) {
+            deepest = deepest.append("children").append(0);
+        }
+        loadAndEdit("polymorphic, depth " + depth,
+                POLYMORPHIC_SCHEMA,
+                JsonDocs.nested(depth, "children", true, level -> level == depth - 1
+                        ? "\"kind\": \"leaf\", \"level\": " + level + ", \"weight\": 1.5"
+                        : "\"kind\": \"branch\", \"level\": " + level),
+                deepest.append("level"),
+                Integer.toString(depth - 1));
+    }
+
+    @Test
+    public void polymorphic10() {
+        polymorphic(10);
+    }
+
+    @Test
+    public void polymorphic50() {
+        polymorphic(50);
+    }
+
+    @Test
+    public void cycleSample() {
+        sandbox.selectSample("Cycle");
+        int depth = 100;
+        JsPath deepest = JsPath.empty;
+        for (int i = 1; i < depth; i++) {
+            deepest = deepest.append("next");
+        }
+        String doc = JsonDocs.nested(depth, "next", false, level -> "\"name\": \"n" + level + "\", \"level\": " + level);
+        long start = System.nanoTime();
+        sandbox.jsonEditor.setTextBulk(doc);
+        long loaded = (System.nanoTime() - start) / 1_000_000;
+        long rendered = awaitFormValue("cycle", deepest.append("level"), Integer.toString(depth - 1));
+        String line = String.format("%-28s %9d chars : loaded %6d ms, rendered %6d ms later",
+                "cycle sample, depth " + depth, doc.length(), loaded, rendered);
+        logger.info(line);
+        report.addLine(line);
+    }
+}
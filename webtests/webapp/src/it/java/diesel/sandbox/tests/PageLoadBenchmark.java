@@ -0,0 +1,68 @@
+package diesel.sandbox.tests;
+
+import diesel.json.util.RenderSync;
+import org.junit.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+// run with mvn verify -Pperf, then with -Dwebtests.server.plain=true : the difference is what the
+// precompressed variants, etags and caching of the StaticServer save, on cold and warm loads
+public class PageLoadBenchmark extends SandboxTestBase {
+
+    private static final int RUNS = 5;
+
+    private static final String TIMINGS_SCRIPT =
+            "var nav = performance.getEntriesByType('navigation')[0];\n" +
+            "var transferred = nav.transferSize;\n" +
+            "var decoded = nav.decodedBodySize;\n" +
+            "performance.getEntriesByType('resource').forEach(function(r) {\n" +
+            "  transferred += r.transferSize;\n" +
+            "  decoded += r.decodedBodySize;\n" +
+            "});\n" +
+            "return {\n" +
+            "  domContentLoaded: Math.round(nav.domContentLoadedEventEnd),\n" +
+            "  load: Math.round(nav.loadEventEnd),\n" +
+            "  transferred: transferred,\n" +
+            "  decoded: decoded\n" +
+            "};";
+
+    private void clearBrowserCache() {
+        WebDriver d = getWebDriver();
+        if (d instanceof WrapsDriver) {
+            d = ((WrapsDriver) d).getWrappedDriver();
+        }
+        if (d instanceof HasCdp) {
+            ((HasCdp) d).executeCdpCommand("Network.clearBrowserCache", Collections.emptyMap());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadAndLog(String label) {
+        long start = System.nanoTime();
+        getWebDriver().get(SandboxServer.baseUrl());
+        assertTrue("sandbox hooks not found", RenderSync.awaitIdle(getWebDriver()));
+        long ready = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Object> t = (Map<String, Object>) ((JavascriptExecutor) getWebDriver())
+                .executeScript(TIMINGS_SCRIPT);
+        logger.info(String.format("%s : ready in %d ms (domContentLoaded %s ms, load %s ms), %s bytes transferred for %s bytes decoded",
+                label, ready, t.get("domContentLoaded"), t.get("load"), t.get("transferred"), t.get("decoded")));
+    }
+
+    @Test
+    public void pageReady() {
+        for (int i = 0; i < RUNS; i++) {
+            clearBrowserCache();
+            loadAndLog("cold #" + i);
+        }
+        for (int i = 0; i < RUNS; i++) {
+            loadAndLog("warm #" + i);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package diesel.sandbox.tests;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// the sample selected before the test. Tests of the same sample that follow each other (see
+// SampleOrder) share its schema, only the instance is reset between them
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Sample {
+    String value();
+}
@@ -0,0 +1,22 @@
+package diesel.sandbox.tests;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Ordering;
+import org.junit.runner.manipulation.Sorter;
+
+import java.util.Comparator;
+
+// groups the tests by @Sample (tests without a sample first), so that the tests of a
+// sample run one after the other on the loaded schema. Use with @OrderWith
+public class SampleOrder implements Ordering.Factory {
+
+    static String sampleOf(Description description) {
+        Sample sample = description.getAnnotation(Sample.class);
+        return sample == null ? "" : sample.value();
+    }
+
+    @Override
+    public Ordering create(Ordering.Context context) {
+        return new Sorter(Comparator.comparing(SampleOrder::sampleOf));
+    }
+}
@@ -0,0 +1,86 @@
+package diesel.sandbox.tests;
+
+import diesel.json.driver.BrowserMemory;
+import diesel.json.util.RenderSync;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+// switches through all the samples webtests.leak.cycles times, and fails if the memory
+// measured after each cycle keeps growing by more than webtests.leak.thresholdPercent.
+// run with mvn verify -Pperf
+public class SampleSwitchingStress extends SandboxTestBase {
+
+    private static final int CYCLES = Integer.getInteger("webtests.leak.cycles", 10);
+
+    private static final double THRESHOLD_PERCENT =
+            Double.parseDouble(System.getProperty("webtests.leak.thresholdPercent", "10"));
+
+    private static class Measure {
+        final BrowserMemory.Snapshot page;
+        final long worker;
+
+        Measure(BrowserMemory.Snapshot page, long worker) {
+            this.page = page;
+            this.worker = worker;
+        }
+    }
+
+    // cycle 0 fills the caches and is not checked. Growth at every cycle (never going
+    // down) and by more than the threshold overall means a leak.
+    private static String checkGrowth(String what, List<Measure> measures, ToLongFunction<Measure> f) {
+        long first = f.applyAsLong(measures.get(1));
+        long prev = first;
+        for (int i = 2; i < measures.size(); i++) {
+            long v = f.applyAsLong(measures.get(i));
+            if (v < prev) {
+                return null;
+            }
+            prev = v;
+        }
+        double growth = first <= 0 ? 0 : (prev - first) * 100.0 / first;
+        if (prev > first && growth > THRESHOLD_PERCENT) {
+            return String.format("%s grows at every cycle : %d -> %d (+%.1f%%)", what, first, prev, growth);
+        }
+        return null;
+    }
+
+    @Test
+    public void switchSamples() {
+        assumeTrue("needs DevTools", BrowserMemory.isSupported(getWebDriver()));
+        assumeTrue("needs a DevTools connection to measure the schema worker, not checking for leaks",
+                BrowserMemory.isWorkerSupported(getWebDriver()));
+        List<String> samples = sandbox.sampleNames();
+        List<Measure> measures = new ArrayList<>();
+        for (int cycle = 0; cycle <= CYCLES; cycle++) {
+            for (String sample : samples) {
+                sandbox.selectSample(sample);
+                RenderSync.awaitIdle(getWebDriver());
+            }
+            Measure m = new Measure(BrowserMemory.measure(getWebDriver()), BrowserMemory.measureWorker(getWebDriver()));
+            logger.info(String.format("cycle %3d (%d samples) : %s, worker heap %d bytes",
+                    cycle, samples.size(), m.page, m.worker));
+            measures.add(m);
+        }
+        assumeTrue("needs at least 2 checked cycles", measures.size() >= 3);
+
+        List<String> leaks = new ArrayList<>();
+        String[] checks = {
+                checkGrowth("JS heap", measures, m -> m.page.getJsHeapUsed()),
+                checkGrowth("DOM nodes", measures, m -> m.page.getDomNodes()),
+                checkGrowth("event listeners", measures, m -> m.page.getJsEventListeners()),
+                checkGrowth("worker heap", measures, m -> m.worker)
+        };
+        for (String c : checks) {
+            if (c != null) {
+                leaks.add(c);
+            }
+        }
+        assertTrue("Leaks after " + CYCLES + " cycles :\n" + String.join("\n", leaks), leaks.isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+package diesel.sandbox.tests;
+
+import diesel.json.util.StaticServer;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.TestRule;
+
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+
+// the sandbox under test : by default served from sandbox/dist by a StaticServer started in
+// this JVM on an ephemeral port (so that the tests run from the IDE, and failsafe forks don't
+// share it). With webtests.server=external, the server at webtests.baseUrl. With
+// webtests.server.plain=true, served without compression, etags or caching (see PageLoadBenchmark).
+class SandboxServer {
+
+    private static final Logger logger = Logger.getLogger(SandboxServer.class.getName());
+
+    private static String baseUrl;
+
+    // starts the server before the first test class. It is kept for the whole JVM rather
+    // than per class : pooled browsers keep their pages (and origin) between classes.
+    static TestRule rule() {
+        return new ExternalResource() {
+            @Override
+            protected void before() {
+                baseUrl();
+            }
+        };
+    }
+
+    static synchronized String baseUrl() {
+        if (baseUrl == null) {
+            if ("external".equals(System.getProperty("webtests.server", "embedded"))) {
+                baseUrl = System.getProperty("webtests.baseUrl", "http://localhost:3000");
+            } else {
+                long start = System.nanoTime();
+                boolean plain = Boolean.getBoolean("webtests.server.plain");
+                StaticServer server = StaticServer.start(
+                        Paths.get(System.getProperty("webtests.sandbox.dist", "../../sandbox/dist")), plain);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                baseUrl = server.getBaseUrl();
+                logger.info("Sandbox served at " + baseUrl + (plain ? " (plain)" : "") + ", started in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        }
+        return baseUrl;
+    }
+}
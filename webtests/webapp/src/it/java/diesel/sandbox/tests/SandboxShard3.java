@@ -0,0 +1,9 @@
+package diesel.sandbox.tests;
+
+import org.junit.runner.RunWith;
+
+// run with mvn verify -Psharded-webtests
+@RunWith(ShardRunner.class)
+@ShardRunner.Shard(3)
+public class SandboxShard3 {
+}
@@ -3,76 +3,24 @@ package diesel.sandbox.tests;
 import com.pojosontheweb.selenium.Findr;
 import static com.pojosontheweb.selenium.Findrs.attrEquals;
 import static com.pojosontheweb.selenium.Findrs.textEquals;
+import static org.junit.Assert.assertEquals;
 
-import com.pojosontheweb.selenium.ManagedDriverJunit4TestBase;
 import diesel.json.*;
-import org.junit.After;
-import org.junit.Before;
+import diesel.json.script.Recorder;
+import diesel.json.script.Script;
 import org.junit.Test;
-import org.openqa.selenium.Dimension;
+import org.junit.runner.OrderWith;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.logging.LogType;
-import org.openqa.selenium.logging.LoggingPreferences;
-import org.openqa.selenium.remote.CapabilityType;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.function.Predicate;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
-public class SandboxTest extends ManagedDriverJunit4TestBase {
-
-    protected static final Logger logger = Logger.getLogger(SandboxTest.class.getName());
-
-    private FSandbox sandbox;
-
-    @Override
-    protected WebDriver createWebDriver() {
-        return createWebDriver("en");
-    }
-
-    protected WebDriver createWebDriver(String lng) {
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--ignore-certificate-errors");
-        HashMap<String, String> prefs = new HashMap<>();
-        prefs.put("intl.accept_languages", lng);
-        options.setExperimentalOption("prefs", prefs);
-        LoggingPreferences loggingPrefs = new LoggingPreferences();
-        loggingPrefs.enable(LogType.BROWSER, Level.ALL);
-        options.setCapability(CapabilityType.LOGGING_PREFS, loggingPrefs);
-        options.setCapability("goog:loggingPrefs", loggingPrefs);
-        WebDriver d = new ChromeDriver(options);
-        d.manage().window().setSize(new Dimension(1920, 1200));
-        return d;
-    }
-
-    @After
-    public void logBrowserConsole() {
-        String browserLog = getWebDriver().manage()
-                .logs().get(LogType.BROWSER).getAll().stream()
-                .map(logEntry -> "  |BROWSER| " + logEntry.toString())
-                .collect(Collectors.joining("\n"));
-        if (browserLog.isEmpty()) {
-            return;
-        }
-        logger.info("\n" + browserLog);
-        if (Findr.isDebugEnabled()) {
-            Findr.logDebug(browserLog);
-        }
-    }
-
-    @Before
-    public void loadPage() {
-        getWebDriver().get("http://localhost:3000");
-        sandbox = new FSandbox(findr());
-    }
+@OrderWith(SampleOrder.class)
+public class SandboxTest extends SandboxTestBase {
 
     @Test
     public void simpleLong() {
@@ -111,9 +59,9 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
                 .assertNoError();
     }
 
-    private final String BeanContainingOtherBean = "BeanContainingOtherBean";
-    private final String EnumArray = "EnumArray";
-    private final String ObjectArray = "ObjectArray";
+    private static final String BeanContainingOtherBean = "BeanContainingOtherBean";
+    private static final String EnumArray = "EnumArray";
+    private static final String ObjectArray = "ObjectArray";
 
     @Test
     public void customerAge() {
@@ -125,6 +73,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
                 "    \"age\": 0\n" +
                 "  }\n" +
                 "}";
+        // typed in the editor : the tests that only need a document to start from load it
+        // with loadSample or load instead
         sandbox.selectSample(BeanContainingOtherBean);
         sandbox.jsonEditor
                 .focus()
@@ -148,11 +98,39 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    public void snapshot() {
+        String text = "{\n" +
+                "  \"customer\": {\n" +
+                "    \"firstName\": \"John\",\n" +
+                "    \"lastName\": \"\",\n" +
+                "    \"amount\": 0,\n" +
+                "    \"age\": 12\n" +
+                "  }\n" +
+                "}";
+        sandbox.loadSample(BeanContainingOtherBean, text);
+        JsPath customer = JsPath.empty.append("customer");
+        sandbox.jsonForm.waitForSnapshot(s -> {
+            s.at(JsPath.empty)
+                    .assertType("jv-object")
+                    .assertChildKeys("customer");
+            s.at(customer)
+                    .assertChildKeys("firstName", "lastName", "amount", "age");
+            s.at(customer.append("firstName"))
+                    .assertType("jv-string")
+                    .assertValue("John")
+                    .assertNoError();
+            s.at(customer.append("age"))
+                    .assertType("jv-number")
+                    .assertValue("12");
+        });
+    }
+
+    @Test
+    @Sample(BeanContainingOtherBean)
     public void addProperty() {
 
         FJsonForm f = sandbox.jsonForm;
 
-        sandbox.selectSample(BeanContainingOtherBean);
         sandbox.jsonEditor.assertText("{}");
         f
                 .objectAt(JsPath.empty)
@@ -165,10 +143,10 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample(ObjectArray)
     public void addArrayElement() {
         FJsonForm f = sandbox.jsonForm;
 
-        sandbox.selectSample(ObjectArray);
         sandbox.jsonEditor.focus().clearText();
         sandbox.jsonEditor.assertText("");
 
@@ -189,6 +167,25 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
                 .assertEmpty();
     }
 
+    @Test
+    @Sample(ObjectArray)
+    public void addArrayElementWithActions() {
+        FJsonForm f = sandbox.jsonForm;
+
+        sandbox.jsonEditor.focus().clearText();
+        sandbox.jsonEditor.assertText("");
+
+        FActions actions = f.actions();
+        assertEquals(JsPath.empty, actions.propose(JsPath.empty, "array"));
+        assertEquals(JsPath.empty.append(0), actions.addElement(JsPath.empty));
+        f
+                .arrayAt(JsPath.empty)
+                .assertLength(1);
+        f
+                .objectAt(JsPath.empty.append(0))
+                .assertEmpty();
+    }
+
     private void assertErrorInvalidType(String type) {
         sandbox.schemaEditor
                 .focus()
@@ -312,8 +309,45 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    public void replayThroughMenus() {
+        FJsonForm f = sandbox.jsonForm;
+        JsPath foo = JsPath.empty.append("foo");
+        JsPath bar = JsPath.empty.append("bar");
+        String expected = "{\n" +
+                "  \"foo\": [\n" +
+                "    0\n" +
+                "  ],\n" +
+                "  \"bar\": \"\"\n" +
+                "}";
+
+        // recorded with the direct actions, the same steps as the menus
+        Recorder.start();
+        sandbox.load("{}", "{}");
+        FActions actions = f.actions();
+        actions.addProperty(JsPath.empty, "foo");
+        actions.changeType(foo, "array");
+        actions.addElement(foo);
+        actions.addElement(foo);
+        actions.changeType(foo.append(1), "number");
+        actions.delete(foo.append(0));
+        actions.addProperty(JsPath.empty, "bar");
+        actions.changeType(bar, "string");
+        Script script = Recorder.stop();
+        sandbox.jsonEditor.assertText(expected);
+        assertEquals(
+                Arrays.asList("load", "add-property", "change-type", "add-element", "add-element",
+                        "change-type", "delete", "add-property", "change-type"),
+                script.getSteps().stream().map(step -> step.command).collect(Collectors.toList()));
+
+        // the load step starts over from an empty document
+        new ScriptPlayer(sandbox, true).play(script, ScriptPlayer.Pace.FULL_SPEED, (index, step, nanos) -> {});
+        f.assertMenuClosed();
+        sandbox.jsonEditor.assertText(expected);
+    }
+
+    @Test
+    @Sample("Date")
     public void AddTypeDate() {
-        sandbox.selectSample("Date");
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
         String date = simpleDateFormat.format(new Date());
         sandbox.schemaEditor.assertText("{\n" +
@@ -347,8 +381,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample("Date")
     public void typeDateInInputField() {
-        sandbox.selectSample("Date");
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
         String date = simpleDateFormat.format(new Date());
         sandbox.schemaEditor.assertText("{\n" +
@@ -373,8 +407,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample("DateTime")
     public void ErrorsOnInvalidDateTime() {
-        sandbox.selectSample("DateTime");
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
         String date = simpleDateFormat.format(new Date());
         sandbox.schemaEditor.assertText("{\n" +
@@ -420,9 +454,9 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample("Polymorphism")
     public void polymorphism() {
         FJsonForm f = sandbox.jsonForm;
-        sandbox.selectSample("Polymorphism");
         sandbox.schemaEditor.assertText("{\n" +
                 "  \"$schema\": \"https://json-schema.org/draft/2019-09/schema\",\n" +
                 "  \"$id\": \"http://schema.animal.Animal\",\n" +
@@ -535,7 +569,7 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
                         "}");
         fObject.assertProperties("what", "endangered", "name", "sound", "type", "trunkLength", "tusk");
         sandbox.jsonEditor.focus().clearText();
-        f.clickRootMenu().clickPropose("{ what }");
+        f.actions().propose(JsPath.empty, "{ what }");
         fObject.clickAddPropButton("endangered");
         fObject.clickAddPropButton("mane");
         fObject.clickAddPropButton("name");
@@ -553,25 +587,19 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample(EnumArray)
     public void enumTest() {
         FJsonForm form = sandbox.jsonForm;
 
-        sandbox.selectSample(EnumArray);
-
         sandbox.jsonEditor.assertText("{}");
 
-        sandbox.jsonEditor
-                .focus()
-                .clearText();
-
         String enumContent = "[\n" +
                 "  \"BAR\",\n" +
                 "  \"FOO\"\n" +
                 "]";
 
-        sandbox.jsonEditor
-                .typeText(enumContent)
-                .assertText(enumContent);
+        sandbox.loadSample(EnumArray, enumContent);
+        sandbox.jsonEditor.assertText(enumContent);
 
         FArray fArray = form.arrayAt(JsPath.empty);
         fArray.assertLength(2);
@@ -605,60 +633,51 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     @Test
     public void recursiveSchema() {
         FJsonForm f = sandbox.jsonForm;
-        sandbox.schemaEditor
-                .focus()
-                .clearText()
-                .typeText("{\n" +
-                        "  \"type\": \"object\",\n" +
-                        "  \"properties\": {\n" +
-                        "    \"name\": { \"type\": \"string\" },\n" +
-                        "    \"children\": {\n" +
-                        "      \"type\": \"array\",\n" +
-                        "      \"items\": { \"$ref\": \"#\" }\n" +
-                        "    }\n" +
-                        "  }\n" +
-                        "}");
+        String schema = "{\n" +
+                "  \"type\": \"object\",\n" +
+                "  \"properties\": {\n" +
+                "    \"name\": { \"type\": \"string\" },\n" +
+                "    \"children\": {\n" +
+                "      \"type\": \"array\",\n" +
+                "      \"items\": { \"$ref\": \"#\" }\n" +
+                "    }\n" +
+                "  }\n" +
+                "}";
         FObject fObject = f.objectAt(JsPath.empty);
-        sandbox.jsonEditor
-                .focus()
-                .clearText()
-                .typeText("{}");
+        sandbox.load(schema, "{}");
         fObject.assertEmptyProperties("name", "children");
-        sandbox.jsonEditor
-                .focus()
-                .clearText()
-                .typeText("{\n" +
-                        "  \"name\": \"Elizabeth\",\n" +
-                        "  \"children\": [\n" +
-                        "    {\n" +
-                        "      \"name\": \"Charles\",\n" +
-                        "      \"children\": [\n" +
-                        "        {\n" +
-                        "          \"name\": \"William\",\n" +
-                        "          \"children\": [\n" +
-                        "            {\n" +
-                        "              \"name\": \"George\"\n" +
-                        "            },\n" +
-                        "            {\n" +
-                        "              \"name\": \"Charlotte\"\n" +
-                        "            }\n" +
-                        "          ]\n" +
-                        "        },\n" +
-                        "        {\n" +
-                        "          \"name\": \"Harry\",\n" +
-                        "          \"children\": [\n" +
-                        "            {\n" +
-                        "              \"name\": \"Archie\"\n" +
-                        "            },\n" +
-                        "            {\n" +
-                        "              \"name\": \"Lilibet\"\n" +
-                        "            }\n" +
-                        "          ]\n" +
-                        "        }\n" +
-                        "      ]\n" +
-                        "    }\n" +
-                        "  ]\n" +
-                        "}");
+        sandbox.load(schema, "{\n" +
+                "  \"name\": \"Elizabeth\",\n" +
+                "  \"children\": [\n" +
+                "    {\n" +
+                "      \"name\": \"Charles\",\n" +
+                "      \"children\": [\n" +
+                "        {\n" +
+                "          \"name\": \"William\",\n" +
+                "          \"children\": [\n" +
+                "            {\n" +
+                "              \"name\": \"George\"\n" +
+                "            },\n" +
+                "            {\n" +
+                "              \"name\": \"Charlotte\"\n" +
+                "            }\n" +
+                "          ]\n" +
+                "        },\n" +
+                "        {\n" +
+                "          \"name\": \"Harry\",\n" +
+                "          \"children\": [\n" +
+                "            {\n" +
+                "              \"name\": \"Archie\"\n" +
+                "            },\n" +
+                "            {\n" +
+                "              \"name\": \"Lilibet\"\n" +
+                "            }\n" +
+                "          ]\n" +
+                "        }\n" +
+                "      ]\n" +
+                "    }\n" +
+                "  ]\n" +
+                "}");
 
         f.stringAt(JsPath.empty.append("name")).assertValue("Elizabeth");
 
@@ -698,7 +717,7 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
 
         sandbox.selectSample("DateTimeExample");
         FJsonForm f = sandbox.jsonForm;
-        f.clickRootMenu().clickPropose("2022-11-28T09:27:17Z");
+        f.actions().propose(JsPath.empty, "2022-11-28T09:27:17Z");
         f.dateAt(JsPath.empty)
                 .assertNoError()
                 .assertValue("2022-11-28");
@@ -755,8 +774,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample("RendererRating")
     public void testCustomRenderer() {
-        sandbox.selectSample("RendererRating");
         sandbox.jsonEditor.replaceText("{\n" + //
                 "  \"name\": \"\",\n" + //
                 "  \"rating\": 0\n" + //
@@ -801,8 +820,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample("Renderer1")
     public void testRendererAccessSchema1() {
-        sandbox.selectSample("Renderer1");
         assertMyConfigProp("Config prop is undefined");
         sandbox.jsonEditor.replaceText("\"yalla\"");
         assertMyStringValue("yalla");
@@ -812,8 +831,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample("Renderer2")
     public void testRendererAccessSchema2() {
-        sandbox.selectSample("Renderer2");
         assertMyConfigProp("Config prop set to 123");
     }
 
@@ -836,8 +855,8 @@ public class SandboxTest extends ManagedDriverJunit4TestBase {
     }
 
     @Test
+    @Sample(BeanContainingOtherBean)
     public void testProposeSubProp() {
-        sandbox.selectSample(BeanContainingOtherBean);
         sandbox.jsonForm
                 .objectAt(JsPath.empty)
                 .clickAddPropButton("customer");
@@ -0,0 +1,139 @@
+package diesel.sandbox.tests;
+
+import com.pojosontheweb.selenium.Findr;
+import com.pojosontheweb.selenium.ManagedDriverJunit4TestBase;
+import diesel.json.FSandbox;
+import diesel.json.driver.BrowserConsole;
+import diesel.json.driver.ChromeDriverFactory;
+import diesel.json.driver.DriverPool;
+import diesel.json.driver.Profiling;
+import diesel.json.driver.RoundTrips;
+import diesel.json.script.Recorder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.rules.TestName;
+import org.junit.rules.TestRule;
+import org.junit.runners.model.Statement;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+public abstract class SandboxTestBase extends ManagedDriverJunit4TestBase {
+
+    protected static final Logger logger = Logger.getLogger(SandboxTestBase.class.getName());
+
+    private static final ChromeDriverFactory driverFactory = ChromeDriverFactory.fromSystemProperties();
+
+    @ClassRule
+    public static final TestRule sandboxServer = SandboxServer.rule();
+
+    protected FSandbox sandbox;
+
+    @Rule
+    public final TestRule driverLease = DriverPool.leaseRule();
+
+    @Rule
+    public final TestRule roundTrips = RoundTrips.rule();
+
+    @Rule
+    public final TestName testName = new TestName();
+
+    // the previous test of the thread failed : its page state can't be trusted
+    private static final ThreadLocal<Boolean> previousFailed = ThreadLocal.withInitial(() -> false);
+
+    private String sample;
+
+    @Rule
+    public final TestRule sampleFixture = (base, description) -> new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+            sample = SampleOrder.sampleOf(description);
+            boolean failed = true;
+            try {
+                base.evaluate();
+                failed = false;
+            } finally {
+                previousFailed.set(failed);
+            }
+        }
+    };
+
+    @Override
+    protected WebDriver createWebDriver() {
+        return createWebDriver("en");
+    }
+
+    protected WebDriver createWebDriver(String lng) {
+        if (DriverPool.isEnabled()) {
+            return DriverPool.get().acquire(lng, () -> newWebDriver(lng));
+        }
+        return newWebDriver(lng);
+    }
+
+    protected static WebDriver newWebDriver(String lng) {
+        return BrowserConsole.watch(RoundTrips.instrument(driverFactory.create(lng)));
+    }
+
+    @After
+    public void logBrowserConsole() {
+        String browserLog = BrowserConsole.drain(getWebDriver()).stream()
+                .map(logEntry -> "  |BROWSER| " + logEntry.toString())
+                .collect(Collectors.joining("\n"));
+        if (browserLog.isEmpty()) {
+            return;
+        }
+        logger.info("\n" + browserLog);
+        if (Findr.isDebugEnabled()) {
+            Findr.logDebug(browserLog);
+        }
+    }
+
+    @Before
+    public void loadPage() {
+        sandbox = new FSandbox(findr());
+        // pooled drivers are reused : the page is either reset in place (warm mode), or
+        // reloaded. Drivers of failed tests are discarded, so they always get a fresh page.
+        // A test following one of the same @Sample only gets its instance reset.
+        boolean reuse = isWarm() && !previousFailed.get();
+        boolean sampleLoaded = reuse && !sample.isEmpty() && sandbox.resetInstance(sample);
+        if (!sampleLoaded) {
+            if (!reuse || !sandbox.reset()) {
+                getWebDriver().get(SandboxServer.baseUrl());
+            }
+            if (!sample.isEmpty()) {
+                sandbox.selectSample(sample);
+            }
+        }
+        // round trips are counted, and the browser profiled, for the test itself
+        RoundTrips.restart();
+        Profiling.start(getWebDriver());
+        // the session is recorded from the loaded sample, for replays (see ScriptPlayer)
+        if (System.getProperty("webtests.record.dir") != null) {
+            Recorder.start();
+            if (!sample.isEmpty()) {
+                Recorder.record("sample", sample);
+            }
+        }
+    }
+
+    @After
+    public void saveProfile() {
+        Profiling.stop(getWebDriver(), getClass().getSimpleName() + "." + testName.getMethodName());
+    }
+
+    @After
+    public void saveScript() {
+        String dir = System.getProperty("webtests.record.dir");
+        if (dir != null && Recorder.isRecording()) {
+            Recorder.stop().write(Paths.get(dir, getClass().getSimpleName() + "." + testName.getMethodName() + ".tsv"));
+        }
+    }
+
+    protected boolean isWarm() {
+        return Boolean.parseBoolean(System.getProperty("webtests.sandbox.warm", "true"));
+    }
+}
@@ -0,0 +1,109 @@
+package diesel.sandbox.tests;
+
+import com.pojosontheweb.selenium.Findr;
+import diesel.json.FJsonForm;
+import diesel.json.FSandbox;
+import diesel.json.JsPath;
+import diesel.json.ScriptPlayer;
+import diesel.json.script.Recorder;
+import diesel.json.script.Script;
+import diesel.json.util.LatencyReport;
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertFalse;
+
+// replays a recorded session in webtests.replay.sessions concurrent browsers, webtests.replay.iterations
+// times each, at full speed or at the recorded pace (webtests.replay.pace = full_speed or recorded).
+// The script is read from webtests.replay.script (e.g. a test recorded with -Dwebtests.record.dir),
+// or recorded first from the session below. Menu steps are replayed by clicking the menus, which
+// asks the worker for the proposals of each menu as a real session does. With
+// -Dwebtests.replay.directActions=true they use the direct actions instead, faster but with less
+// worker load. Run with mvn verify -Pperf, add -Dwebtests.chrome.profile=throughput for headless
+// sessions. The step latencies are logged by command at the end, and the distributions written to
+// webtests.replay.dir
+public class SessionReplayBenchmark extends SandboxTestBase {
+
+    private static final int SESSIONS = Integer.getInteger("webtests.replay.sessions", 4);
+
+    private static final int ITERATIONS = Integer.getInteger("webtests.replay.iterations", 1);
+
+    private static final ScriptPlayer.Pace PACE =
+            ScriptPlayer.Pace.fromString(System.getProperty("webtests.replay.pace", "full_speed"));
+
+    private static final boolean DIRECT_ACTIONS = Boolean.getBoolean("webtests.replay.directActions");
+
+    private static final String SESSION = "(session)";
+
+    private final LatencyReport report = new LatencyReport(
+            String.format("Replay step latency, %d sessions x %d, %s", SESSIONS, ITERATIONS, PACE),
+            Paths.get(System.getProperty("webtests.replay.dir", "target/replay")), "replay-");
+
+    // sample switches, editor and form edits, and menu actions
+    private Script recordSession() {
+        Recorder.start();
+        FJsonForm f = sandbox.jsonForm;
+        sandbox.selectSample("BeanContainingOtherBean");
+        f.objectAt(JsPath.empty).clickAddPropButton("customer");
+        JsPath customer = JsPath.empty.append("customer");
+        f.actions().propose(customer, "{ firstName, lastName, amount, age }");
+        f.stringAt(customer.append("firstName")).setValue("John");
+        f.stringAt(customer.append("lastName")).setValue("Doe");
+        f.numberAt(customer.append("age")).setValue("42");
+        sandbox.selectSample("ObjectArray");
+        sandbox.jsonEditor.clearText();
+        f.actions().propose(JsPath.empty, "array");
+        f.actions().addElement(JsPath.empty);
+        f.actions().addElement(JsPath.empty);
+        f.actions().delete(JsPath.empty.append(0));
+        f.actions().changeType(JsPath.empty.append(0), "string");
+        return Recorder.stop();
+    }
+
+    private void runSession(Script script) {
+        WebDriver driver = newWebDriver("en");
+        try {
+            for (int i = 0; i < ITERATIONS; i++) {
+                driver.get(SandboxServer.baseUrl());
+                ScriptPlayer player = new ScriptPlayer(new FSandbox(new Findr(driver)), !DIRECT_ACTIONS);
+                long start = System.nanoTime();
+                player.play(script, PACE, (index, step, nanos) -> report.recordNanos(step.command, nanos));
+                report.recordNanos(SESSION, System.nanoTime() - start);
+            }
+        } finally {
+            driver.quit();
+        }
+    }
+
+    @Test
+    public void replaySession() throws Exception {
+        String scriptFile = System.getProperty("webtests.replay.script");
+        Script script = scriptFile != null ? Script.read(Paths.get(scriptFile)) : recordSession();
+        assertFalse("Nothing to replay", script.getSteps().isEmpty());
+        Path dir = Paths.get(System.getProperty("webtests.replay.dir", "target/replay"));
+        script.write(dir.resolve("replayed.tsv"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(SESSIONS);
+        try {
+            List<Future<?>> sessions = new ArrayList<>();
+            for (int i = 0; i < SESSIONS; i++) {
+                sessions.add(executor.submit(() -> runSession(script)));
+            }
+            // the first failure fails the test
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        report.log(logger);
+    }
+}
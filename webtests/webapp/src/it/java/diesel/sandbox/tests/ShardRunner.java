@@ -0,0 +1,166 @@
+package diesel.sandbox.tests;
+
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// runs a shard of the test methods, assigned longest first (TestTimings) to the least loaded shard.
+// Each of the webtests.shards shards needs its @Shard class
+public class ShardRunner extends ParentRunner<Runner> {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface Shard {
+        // 1-based
+        int value();
+    }
+
+    public static final String SYSPROP_TIMINGS = "webtests.shard.timings";
+
+    private static final long DEFAULT_MS = 1000;
+
+    private final List<Runner> runners;
+
+    public ShardRunner(Class<?> klass) throws InitializationError {
+        super(klass);
+        Shard shard = klass.getAnnotation(Shard.class);
+        if (shard == null) {
+            throw new InitializationError(klass.getName() + " is not annotated with @Shard");
+        }
+        int count = Integer.getInteger("webtests.shards", 1);
+        int classes = shardClasses(klass);
+        if (count > classes) {
+            throw new InitializationError("webtests.shards is " + count + " but there are only " + classes
+                    + " shard classes, add " + klass.getSimpleName().replaceAll("\\d+$", "") + (classes + 1)
+                    + " up to " + count);
+        }
+        runners = shard.value() > count ? Collections.emptyList() : runners(shard.value() - 1, count);
+    }
+
+    // the classes named like this one with the shard number 1, 2, ... and annotated with @Shard
+    private static int shardClasses(Class<?> klass) {
+        String prefix = klass.getName().replaceAll("\\d+$", "");
+        int count = 0;
+        while (true) {
+            try {
+                Class<?> c = Class.forName(prefix + (count + 1));
+                if (c.getAnnotation(Shard.class) == null) {
+                    return count;
+                }
+                count++;
+            } catch (ClassNotFoundException e) {
+                return count;
+            }
+        }
+    }
+
+    private static Path timingsSnapshot() {
+        String snapshot = System.getProperty(SYSPROP_TIMINGS);
+        return snapshot == null ? TestTimings.file() : Paths.get(snapshot);
+    }
+
+    private static List<Class<?>> testClasses() throws InitializationError {
+        List<Class<?>> res = new ArrayList<>();
+        for (String name : System.getProperty("webtests.shard.classes", SandboxTest.class.getName()).split(",")) {
+            try {
+                res.add(Class.forName(name.trim()));
+            } catch (ClassNotFoundException e) {
+                throw new InitializationError(e);
+            }
+        }
+        return res;
+    }
+
+    private static List<Runner> runners(int index, int count) throws InitializationError {
+        List<Class<?>> classes = testClasses();
+        List<String> tests = new ArrayList<>();
+        for (Class<?> c : classes) {
+            for (Description d : Request.aClass(c).getRunner().getDescription().getChildren()) {
+                if (d.isTest()) {
+                    tests.add(TestTimings.key(d));
+                }
+            }
+        }
+        Set<String> mine = assign(tests, TestTimings.read(timingsSnapshot()), count).get(index);
+        Filter filter = new Filter() {
+            @Override
+            public boolean shouldRun(Description description) {
+                return !description.isTest() || mine.contains(TestTimings.key(description));
+            }
+
+            @Override
+            public String describe() {
+                return "shard " + (index + 1) + "/" + count;
+            }
+        };
+        List<Runner> res = new ArrayList<>();
+        for (Class<?> c : classes) {
+            Runner runner = Request.aClass(c).getRunner();
+            try {
+                filter.apply(runner);
+                res.add(runner);
+            } catch (NoTestsRemainException e) {
+                // nothing for this shard in this class
+            }
+        }
+        return res;
+    }
+
+    // longest processing time first
+    static List<Set<String>> assign(List<String> tests, Map<String, Long> durations, int count) {
+        long mean = (long) durations.values().stream().mapToLong(Long::longValue).average().orElse(DEFAULT_MS);
+        List<String> sorted = new ArrayList<>(tests);
+        sorted.sort(Comparator.comparingLong((String t) -> durations.getOrDefault(t, mean)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        List<Set<String>> shards = new ArrayList<>();
+        long[] loads = new long[count];
+        for (int i = 0; i < count; i++) {
+            shards.add(new HashSet<>());
+        }
+        for (String t : sorted) {
+            int least = 0;
+            for (int i = 1; i < count; i++) {
+                if (loads[i] < loads[least]) {
+                    least = i;
+                }
+            }
+            shards.get(least).add(t);
+            loads[least] += durations.getOrDefault(t, mean);
+        }
+        return shards;
+    }
+
+    @Override
+    protected List<Runner> getChildren() {
+        return runners;
+    }
+
+    @Override
+    protected Description describeChild(Runner child) {
+        return child.getDescription();
+    }
+
+    @Override
+    protected void runChild(Runner child, RunNotifier notifier) {
+        child.run(notifier);
+    }
+}
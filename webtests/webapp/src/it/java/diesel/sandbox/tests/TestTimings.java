@@ -0,0 +1,122 @@
+package diesel.sandbox.tests;
+
+import org.junit.runner.Description;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// records the duration of each test method into webtests.timings.file (merged with the
+// previous runs, failsafe forks update it in turn). Used by ShardRunner to balance the forks.
+@RunListener.ThreadSafe
+public class TestTimings extends RunListener {
+
+    private static final Logger logger = Logger.getLogger(TestTimings.class.getName());
+
+    public static final String SYSPROP_FILE = "webtests.timings.file";
+
+    private final Map<String, Long> started = new ConcurrentHashMap<>();
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+    static String key(Description d) {
+        return d.getClassName() + "#" + d.getMethodName();
+    }
+
+    static Path file() {
+        return Paths.get(System.getProperty(SYSPROP_FILE, ".webtests-timings.properties"));
+    }
+
+    @Override
+    public void testStarted(Description description) {
+        started.put(key(description), System.nanoTime());
+    }
+
+    @Override
+    public void testFinished(Description description) {
+        Long start = started.remove(key(description));
+        if (start != null) {
+            durations.put(key(description), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @Override
+    public void testRunFinished(Result result) {
+        if (durations.isEmpty()) {
+            return;
+        }
+        try {
+            update(file(), durations);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to write the test timings", new UncheckedIOException(e));
+        }
+    }
+
+    // durations in ms by Class#method, empty if there is no file yet
+    static Map<String, Long> read(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Collections.emptyMap();
+        }
+        try {
+            return toMap(load(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to read the test timings", new UncheckedIOException(e));
+            return Collections.emptyMap();
+        }
+    }
+
+    private static void update(Path file, Map<String, Long> durations) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read all
+            }
+            Properties props = load(buffer.array());
+            durations.forEach((k, v) -> props.setProperty(k, Long.toString(v)));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            props.store(out, "test durations in ms, see TestTimings");
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(out.toByteArray()), 0);
+        }
+    }
+
+    private static Properties load(byte[] bytes) throws IOException {
+        Properties props = new Properties();
+        props.load(new ByteArrayInputStream(bytes));
+        return props;
+    }
+
+    private static Map<String, Long> toMap(Properties props) {
+        Map<String, Long> res = new HashMap<>();
+        props.stringPropertyNames().forEach(k -> {
+            try {
+                res.put(k, Long.parseLong(props.getProperty(k).trim()));
+            } catch (NumberFormatException e) {
+                // ignored
+            }
+        });
+        return res;
+    }
+}
@@ -0,0 +1,109 @@
+package diesel.sandbox.tests;
+
+import diesel.json.FSandbox;
+import diesel.json.JsPath;
+import diesel.json.util.InputMode;
+import diesel.json.util.LatencyReport;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+
+// keystroke to validation response / re-render latencies, using the marks of the sandbox hooks.
+// run with mvn verify -Pperf, the percentiles are logged at the end and the
+// distributions written to webtests.latency.dir
+public class ValidationLatencyBenchmark extends SandboxTestBase {
+
+    private static final int ITEMS = Integer.getInteger("webtests.latency.items", 2000);
+
+    private static final LatencyReport report = new LatencyReport("Input latency",
+            Paths.get(System.getProperty("webtests.latency.dir", "target/latency")), "");
+
+    private void record(String sample, List<FSandbox.Latency> latencies) {
+        assertFalse(sample + " : no input followed by a validation", latencies.isEmpty());
+        for (FSandbox.Latency l : latencies) {
+            report.recordMillis(sample + " validated", l.validatedMs);
+            report.recordMillis(sample + " rendered", l.renderedMs);
+        }
+    }
+
+    @AfterClass
+    public static void logHistograms() {
+        report.log(logger);
+    }
+
+    // the customer, and a long history array the schema says nothing about
+    private static String customerDoc(String firstName) {
+        StringBuilder sb = new StringBuilder("{\n")
+                .append("  \"customer\": {\n")
+                .append("    \"firstName\": \"").append(firstName).append("\",\n")
+                .append("    \"lastName\": \"Doe\",\n")
+                .append("    \"amount\": 100,\n")
+                .append("    \"age\": 12\n")
+                .append("  },\n")
+                .append("  \"history\": [\n");
+        for (int i = 0; i < ITEMS; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append("    {\"id\": ").append(i).append(", \"label\": \"entry ").append(i).append("\"}");
+        }
+        return sb.append("\n  ]\n}").toString();
+    }
+
+    private static String objectArrayDoc() {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < ITEMS; i++) {
+            if (i > 0) {
+                sb.append(",\n");
+            }
+            sb.append("  {\"foo\": ").append(i).append(", \"bar\": ").append(i % 2 == 0).append("}");
+        }
+        return sb.append("\n]").toString();
+    }
+
+    @Test
+    public void beanContainingOtherBeanForm() {
+        sandbox.selectSample("BeanContainingOtherBean");
+        sandbox.jsonEditor.setTextBulk(customerDoc("John"));
+        JsPath customer = JsPath.empty.append("customer");
+        sandbox.jsonForm.stringAt(customer.append("firstName")).assertValue("John");
+
+        sandbox.startLatency();
+        sandbox.jsonForm.stringAt(customer.append("firstName")).setValue("Jonathan Livingston", InputMode.KEYSTROKES);
+        sandbox.jsonForm.numberAt(customer.append("amount")).setValue("12345.75", InputMode.KEYSTROKES);
+        sandbox.jsonForm.numberAt(customer.append("age")).setValue("42", InputMode.KEYSTROKES);
+        record("BeanContainingOtherBean form", sandbox.stopLatency());
+    }
+
+    @Test
+    public void beanContainingOtherBeanEditor() {
+        sandbox.selectSample("BeanContainingOtherBean");
+        sandbox.jsonEditor.setTextBulk(customerDoc(""));
+        sandbox.jsonForm.stringAt(JsPath.empty.append("customer").append("firstName")).assertValue("");
+
+        // one editor change per typed character
+        sandbox.startLatency();
+        String name = "Jonathan";
+        for (int i = 1; i <= name.length(); i++) {
+            sandbox.jsonEditor.setTextBulk(customerDoc(name.substring(0, i)));
+        }
+        record("BeanContainingOtherBean editor", sandbox.stopLatency());
+    }
+
+    @Test
+    public void objectArrayForm() {
+        sandbox.selectSample("ObjectArray");
+        sandbox.jsonEditor.setTextBulk(objectArrayDoc());
+        JsPath last = JsPath.empty.append(ITEMS - 1).append("foo");
+        sandbox.jsonForm.numberAt(last).assertValue(Integer.toString(ITEMS - 1));
+
+        sandbox.startLatency();
+        sandbox.jsonForm.numberAt(last).setValue("314159", InputMode.KEYSTROKES);
+        sandbox.jsonForm.numberAt(JsPath.empty.append(0).append("foo")).setValue("2718", InputMode.KEYSTROKES);
+        record("ObjectArray form", sandbox.stopLatency());
+    }
+}
@@ -2,12 +2,19 @@ package diesel.json;
 
 import com.pojosontheweb.selenium.AbstractPageObject;
 import com.pojosontheweb.selenium.Findr;
+import diesel.json.script.Recorder;
+import diesel.json.util.RenderSync;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
 
 import java.util.Arrays;
+import java.util.List;
 
 public class FEditor extends AbstractPageObject {
 
+    // above this size, documents are sent to the browser in several script calls
+    public static final int BULK_CHUNK_SIZE = 512 * 1024;
+
     private final String id;
     private final JavascriptExecutor js = (JavascriptExecutor) getDriver();
     private final String windowEditorRef;
@@ -19,6 +26,11 @@ public class FEditor extends AbstractPageObject {
     }
 
     public FEditor clearText() {
+        Recorder.record("editor.clear", id);
+        return doClearText();
+    }
+
+    private FEditor doClearText() {
         getFindr().eval(e -> {
             js.executeScript(windowEditorRef + ".setValue('');");
             return true;
@@ -27,6 +39,11 @@ public class FEditor extends AbstractPageObject {
     }
 
     public FEditor typeText(String text) {
+        Recorder.record("editor.type", id, text);
+        return doTypeText(text);
+    }
+
+    private FEditor doTypeText(String text) {
         getFindr().eval(e -> {
             String[] escaped = text.split("\n");
             Arrays.asList(escaped).forEach(line -> {
@@ -44,17 +61,171 @@ public class FEditor extends AbstractPageObject {
         return this;
     }
 
-    public FEditor assertText(String expected) {
-        getFindr().where(e -> {
-            String value = (String) js.executeScript("return " + windowEditorRef + ".getValue();");
-            return expected.equals(value.trim());
-        }).eval();
+    public FEditor setTextBulk(String text) {
+        Recorder.record("editor.set", id, text);
+        getFindr().eval(e -> {
+            if (text.length() <= BULK_CHUNK_SIZE) {
+                // passed as an argument : no escaping, and a single round trip
+                js.executeScript(windowEditorRef + ".setValue(arguments[0]);", text);
+            } else {
+                String buffer = "window.__bulk_" + id;
+                js.executeScript(buffer + " = [];");
+                int start = 0;
+                while (start < text.length()) {
+                    int end = Math.min(text.length(), start + BULK_CHUNK_SIZE);
+                    if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                        end--;
+                    }
+                    js.executeScript(buffer + ".push(arguments[0]);", text.substring(start, end));
+                    start = end;
+                }
+                js.executeScript(windowEditorRef + ".setValue(" + buffer + ".join('')); delete " + buffer + ";");
+            }
+            return true;
+        });
         return this;
     }
 
+    // the editor text, normalized (trimmed, \n line ends) or canonical JSON (sorted keys, no
+    // whitespace, null if invalid) is hashed in the page : polls only transfer the hash
+    private static final String HASH_FUNCTIONS =
+            "function norm(s) {\n" +
+            "  return s.replace(/\\r\\n/g, '\\n').trim();\n" +
+            "}\n" +
+            "function canon(v) {\n" +
+            "  if (Array.isArray(v)) {\n" +
+            "    return '[' + v.map(canon).join(',') + ']';\n" +
+            "  }\n" +
+            "  if (v !== null && typeof v === 'object') {\n" +
+            "    return '{' + Object.keys(v).sort().map(function(k) {\n" +
+            "      return JSON.stringify(k) + ':' + canon(v[k]);\n" +
+            "    }).join(',') + '}';\n" +
+            "  }\n" +
+            "  return JSON.stringify(v);\n" +
+            "}\n" +
+            "function canonText(s) {\n" +
+            "  try {\n" +
+            "    return canon(JSON.parse(s));\n" +
+            "  } catch (e) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "}\n" +
+            "function hash(s) {\n" +
+            "  if (s === null) {\n" +
+            "    return null;\n" +
+            "  }\n" +
+            "  var h = 0x811c9dc5;\n" +
+            "  for (var i = 0; i < s.length; i++) {\n" +
+            "    h ^= s.charCodeAt(i);\n" +
+            "    h = Math.imul(h, 0x01000193);\n" +
+            "  }\n" +
+            "  return [h | 0, s.length];\n" +
+            "}\n";
+
+    private static final String DIFF_SCRIPT =
+            "var expectedText = arguments[0], actualText = arguments[1];\n" +
+            "var out = [];\n" +
+            "function str(v) {\n" +
+            "  var s = JSON.stringify(v);\n" +
+            "  return s && s.length > 80 ? s.substring(0, 77) + '...' : s;\n" +
+            "}\n" +
+            "function diff(path, a, b) {\n" +
+            "  if (out.length >= 20) {\n" +
+            "    return;\n" +
+            "  }\n" +
+            "  var ta = Array.isArray(a) ? 'array' : a === null ? 'null' : typeof a;\n" +
+            "  var tb = Array.isArray(b) ? 'array' : b === null ? 'null' : typeof b;\n" +
+            "  if (ta !== tb) {\n" +
+            "    out.push(path + ' : expected ' + str(a) + ' but was ' + str(b));\n" +
+            "  } else if (ta === 'array') {\n" +
+            "    for (var i = 0; i < Math.max(a.length, b.length); i++) {\n" +
+            "      if (i >= b.length) {\n" +
+            "        out.push(path + '/' + i + ' : missing ' + str(a[i]));\n" +
+            "      } else if (i >= a.length) {\n" +
+            "        out.push(path + '/' + i + ' : unexpected ' + str(b[i]));\n" +
+            "      } else {\n" +
+            "        diff(path + '/' + i, a[i], b[i]);\n" +
+            "      }\n" +
+            "    }\n" +
+            "  } else if (ta === 'object') {\n" +
+            "    Object.keys(a).forEach(function(k) {\n" +
+            "      if (!(k in b)) {\n" +
+            "        out.push(path + '/' + k + ' : missing ' + str(a[k]));\n" +
+            "      } else {\n" +
+            "        diff(path + '/' + k, a[k], b[k]);\n" +
+            "      }\n" +
+            "    });\n" +
+            "    Object.keys(b).forEach(function(k) {\n" +
+            "      if (!(k in a)) {\n" +
+            "        out.push(path + '/' + k + ' : unexpected ' + str(b[k]));\n" +
+            "      }\n" +
+            "    });\n" +
+            "  } else if (a !== b) {\n" +
+            "    out.push(path + ' : expected ' + str(a) + ' but was ' + str(b));\n" +
+            "  }\n" +
+            "}\n" +
+            "var a, b;\n" +
+            "try {\n" +
+            "  a = JSON.parse(expectedText);\n" +
+            "  b = JSON.parse(actualText);\n" +
+            "  diff('', a, b);\n" +
+            "} catch (e) {\n" +
+            "  out.push('not JSON : ' + e.message);\n" +
+            "}\n" +
+            "if (out.length === 0) {\n" +
+            "  var la = expectedText.split('\\n'), lb = actualText.split('\\n');\n" +
+            "  for (var i = 0; i < Math.max(la.length, lb.length); i++) {\n" +
+            "    if (la[i] !== lb[i]) {\n" +
+            "      out.push('same JSON, first difference at line ' + (i + 1) + ' : expected <' + la[i] + '> but was <' + lb[i] + '>');\n" +
+            "      break;\n" +
+            "    }\n" +
+            "  }\n" +
+            "}\n" +
+            "return out.join('\\n');";
+
+    // FNV-1a, same as the hash() function above
+    static List<Long> hash(String s) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x01000193;
+        }
+        return Arrays.asList((long) h, (long) s.length());
+    }
+
+    private FEditor assertHash(String expected, List<?> expectedHash, String hashExpr) {
+        RenderSync.awaitIdle(getDriver());
+        String script = HASH_FUNCTIONS + "return hash(" + hashExpr + "(" + windowEditorRef + ".getValue()));";
+        try {
+            getFindr().where(e -> expectedHash.equals(js.executeScript(script))).eval();
+        } catch (TimeoutException e) {
+            // only now transfer the text, to explain the failure
+            String actual = (String) js.executeScript("return " + windowEditorRef + ".getValue().trim();");
+            String diff = (String) js.executeScript(DIFF_SCRIPT, expected.trim(), actual);
+            throw new AssertionError("Unexpected text in " + id + " :\n" + diff, e);
+        }
+        return this;
+    }
+
+    public FEditor assertText(String expected) {
+        return assertHash(expected, hash(expected), "norm");
+    }
+
+    // compares the JSON values : formatting and property order are ignored
+    @SuppressWarnings("unchecked")
+    public FEditor assertJson(String expected) {
+        List<?> expectedHash = (List<Object>) js.executeScript(
+                HASH_FUNCTIONS + "return hash(canonText(arguments[0]));", expected);
+        if (expectedHash == null) {
+            throw new IllegalArgumentException("Expected text is not valid JSON : " + expected);
+        }
+        return assertHash(expected, expectedHash, "canonText");
+    }
+
     public FEditor replaceText(String newText) {
-        clearText();
-        return typeText(newText);
+        Recorder.record("editor.replace", id, newText);
+        doClearText();
+        return doTypeText(newText);
     }
 
     public FEditor focus() {
@@ -3,6 +3,14 @@ package diesel.json;
 import com.pojosontheweb.selenium.AbstractPageObject;
 import com.pojosontheweb.selenium.Findr;
 import com.pojosontheweb.selenium.formz.Select;
+import diesel.json.script.Recorder;
+import diesel.json.util.JsonDocs;
+import diesel.json.util.RenderSync;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class FSandbox extends AbstractPageObject {
 
@@ -10,11 +18,119 @@ public class FSandbox extends AbstractPageObject {
         super(findr);
     }
 
+    // does nothing if the sample is selected and its schema not modified
     public FSandbox selectSample(String sample) {
-        new Select($("#sampleSchemaSelect")).selectByVisibleText(sample);
+        Recorder.record("sample", sample);
+        Object selected = ((JavascriptExecutor) getDriver()).executeScript(
+                "var select = document.getElementById('sampleSchemaSelect');\n" +
+                "var option = select && select.options[select.selectedIndex];\n" +
+                "return !!option && option.text === arguments[0] && !!window.editor1\n" +
+                "  && window.editor1.getValue() === option.value;", sample);
+        if (!Boolean.TRUE.equals(selected)) {
+            new Select($("#sampleSchemaSelect")).selectByVisibleText(sample);
+        }
+        return this;
+    }
+
+    // resets the instance only, if the sample is selected with its schema unmodified.
+    // Returns false otherwise, or if the page has no hooks
+    public boolean resetInstance(String sample) {
+        try {
+            Object res = ((JavascriptExecutor) getDriver()).executeScript(
+                    "var hooks = window.sandboxHooks;\n" +
+                    "return !!hooks && !!hooks.resetInstance && hooks.resetInstance(arguments[0]);", sample);
+            if (!Boolean.TRUE.equals(res)) {
+                return false;
+            }
+        } catch (WebDriverException e) {
+            return false;
+        }
+        RenderSync.awaitIdle(getDriver());
+        return true;
+    }
+
+    // sets the schema and the value in a single script, and waits once for the form
+    public FSandbox load(String schemaJson, String instanceJson) {
+        Recorder.record("load", schemaJson, instanceJson);
+        ((JavascriptExecutor) getDriver()).executeScript(
+                "window.sandboxHooks.load(arguments[0], arguments[1]);", schemaJson, instanceJson);
+        RenderSync.awaitIdle(getDriver());
         return this;
     }
 
+    // same as load, with the schema and value read from classpath resources
+    public FSandbox loadResources(String schemaResource, String instanceResource) {
+        return load(JsonDocs.readResource(schemaResource), JsonDocs.readResource(instanceResource));
+    }
+
+    // selects the sample (by name) and sets the value, in a single script
+    public FSandbox loadSample(String sample, String instanceJson) {
+        Recorder.record("load-sample", sample, instanceJson);
+        Object found = ((JavascriptExecutor) getDriver()).executeScript(
+                "return window.sandboxHooks.loadSample(arguments[0], arguments[1]);", sample, instanceJson);
+        if (!Boolean.TRUE.equals(found)) {
+            throw new IllegalArgumentException("No such sample : " + sample);
+        }
+        RenderSync.awaitIdle(getDriver());
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> sampleNames() {
+        return (List<String>) ((JavascriptExecutor) getDriver()).executeScript(
+                "return Array.prototype.map.call(document.querySelectorAll('#sampleSchemaSelect option'), " +
+                "function(o) { return o.textContent; });");
+    }
+
+    // resets editors, sample and form in place, returns false if the page has no hooks
+    public boolean reset() {
+        try {
+            Object res = ((JavascriptExecutor) getDriver()).executeScript(
+                    "var hooks = window.sandboxHooks;\n" +
+                    "if (!hooks || !hooks.reset) {\n" +
+                    "  return false;\n" +
+                    "}\n" +
+                    "hooks.reset();\n" +
+                    "return true;");
+            if (!Boolean.TRUE.equals(res)) {
+                return false;
+            }
+        } catch (WebDriverException e) {
+            return false;
+        }
+        RenderSync.awaitIdle(getDriver());
+        return true;
+    }
+
+    public static class Latency {
+        public final double validatedMs;
+        public final double renderedMs;
+
+        Latency(double validatedMs, double renderedMs) {
+            this.validatedMs = validatedMs;
+            this.renderedMs = renderedMs;
+        }
+    }
+
+    // starts recording the input, validation and render marks of the page
+    public FSandbox startLatency() {
+        ((JavascriptExecutor) getDriver()).executeScript("window.sandboxHooks.startLatency();");
+        return this;
+    }
+
+    // waits for the form to settle, and returns the latency of each input since startLatency()
+    @SuppressWarnings("unchecked")
+    public List<Latency> stopLatency() {
+        RenderSync.awaitIdle(getDriver());
+        List<List<Number>> marks = (List<List<Number>>) ((JavascriptExecutor) getDriver())
+                .executeScript("return window.sandboxHooks.stopLatency();");
+        List<Latency> res = new ArrayList<>();
+        for (List<Number> m : marks) {
+            res.add(new Latency(m.get(0).doubleValue(), m.get(1).doubleValue()));
+        }
+        return res;
+    }
+
     public final FEditor schemaEditor = new FEditor(getFindr(), "editor1");
 
     public final FEditor jsonEditor = new FEditor(getFindr(), "editor2");
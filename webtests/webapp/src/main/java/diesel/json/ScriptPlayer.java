@@ -0,0 +1,178 @@
+package diesel.json;
+
+import diesel.json.script.Script;
+import diesel.json.util.InputMode;
+import diesel.json.util.RenderSync;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// replays a Script through the page objects, the menu steps by clicking the menus or with the
+// faster FActions. Each step waits for the form to be idle, and its duration goes to the Listener
+public class ScriptPlayer {
+
+    public enum Pace {
+        // each step as soon as the previous one is done
+        FULL_SPEED,
+        // each step at its recorded offset, or as soon as possible if late
+        RECORDED;
+
+        public static Pace fromString(String s) {
+            return valueOf(s.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    public interface Listener {
+        void stepDone(int index, Script.Step step, long nanos);
+    }
+
+    private final FSandbox sandbox;
+    private final boolean clickMenus;
+
+    public ScriptPlayer(FSandbox sandbox) {
+        this(sandbox, true);
+    }
+
+    public ScriptPlayer(FSandbox sandbox, boolean clickMenus) {
+        this.sandbox = sandbox;
+        this.clickMenus = clickMenus;
+    }
+
+    public void play(Script script, Pace pace, Listener listener) {
+        long start = System.nanoTime();
+        for (int i = 0; i < script.getSteps().size(); i++) {
+            Script.Step step = script.getSteps().get(i);
+            if (pace == Pace.RECORDED) {
+                long wait = step.offsetMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            long stepStart = System.nanoTime();
+            execute(step);
+            RenderSync.awaitIdle(sandbox.getDriver());
+            listener.stepDone(i, step, System.nanoTime() - stepStart);
+        }
+    }
+
+    private FEditor editor(String id) {
+        switch (id) {
+            case "editor1":
+                return sandbox.schemaEditor;
+            case "editor2":
+                return sandbox.jsonEditor;
+            default:
+                throw new IllegalArgumentException("No such editor : " + id);
+        }
+    }
+
+    private void execute(Script.Step step) {
+        FJsonForm form = sandbox.jsonForm;
+        switch (step.command) {
+            case "sample":
+                sandbox.selectSample(step.arg(0));
+                break;
+            case "load-sample":
+                sandbox.loadSample(step.arg(0), step.arg(1));
+                break;
+            case "load":
+                sandbox.load(step.arg(0), step.arg(1));
+                break;
+            case "editor.clear":
+                editor(step.arg(0)).clearText();
+                break;
+            case "editor.type":
+                editor(step.arg(0)).typeText(step.arg(1));
+                break;
+            case "editor.replace":
+                editor(step.arg(0)).replaceText(step.arg(1));
+                break;
+            case "editor.set":
+                editor(step.arg(0)).setTextBulk(step.arg(1));
+                break;
+            case "string.set":
+                form.stringAt(JsPath.parse(step.arg(0))).setValue(step.arg(1), InputMode.valueOf(step.arg(2)));
+                break;
+            case "number.set":
+                form.numberAt(JsPath.parse(step.arg(0))).setValue(step.arg(1), InputMode.valueOf(step.arg(2)));
+                break;
+            case "date.set":
+                form.dateAt(JsPath.parse(step.arg(0))).setValue(step.arg(1), InputMode.valueOf(step.arg(2)));
+                break;
+            case "time.set":
+                form.timeAt(JsPath.parse(step.arg(0))).setValue(step.arg(1), InputMode.valueOf(step.arg(2)));
+                break;
+            case "boolean.click":
+                form.booleanAt(JsPath.parse(step.arg(0))).clickCheckbox();
+                break;
+            case "select":
+                form.selectAt(JsPath.parse(step.arg(0))).selectValue(step.arg(1));
+                break;
+            case "object.select":
+                form.objectAt(JsPath.parse(step.arg(0))).selectPropertyValue(step.arg(1), step.arg(2));
+                break;
+            // the schema's add property buttons, not the menu
+            case "add-prop-button":
+                form.objectAt(JsPath.parse(step.arg(0))).clickAddPropButton(step.arg(1));
+                break;
+            case "add-property":
+            case "add-element":
+            case "change-type":
+            case "propose":
+            case "delete":
+                if (clickMenus) {
+                    clickMenu(form, step);
+                } else {
+                    dispatch(form, step);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command : " + step);
+        }
+    }
+
+    private static void clickMenu(FJsonForm form, Script.Step step) {
+        FMenu menu = form.clickMenu(JsPath.parse(step.arg(0)));
+        switch (step.command) {
+            case "add-property":
+                menu.clickAddProperty().setPropertyName(step.arg(1)).clickAdd();
+                break;
+            case "add-element":
+                menu.clickAddElement();
+                break;
+            case "change-type":
+                menu.clickChangeType(step.arg(1));
+                break;
+            case "propose":
+                menu.clickPropose(step.arg(1));
+                break;
+            default:
+                menu.clickDeleteElement();
+        }
+    }
+
+    private static void dispatch(FJsonForm form, Script.Step step) {
+        JsPath path = JsPath.parse(step.arg(0));
+        switch (step.command) {
+            case "add-property":
+                form.actions().addProperty(path, step.arg(1));
+                break;
+            case "add-element":
+                form.actions().addElement(path);
+                break;
+            case "change-type":
+                form.actions().changeType(path, step.arg(1));
+                break;
+            case "propose":
+                form.actions().propose(path, step.arg(1));
+                break;
+            default:
+                form.actions().delete(path);
+        }
+    }
+}